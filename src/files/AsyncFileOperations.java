@@ -0,0 +1,358 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package files;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This performs the operations of {@link FilesExtended} that alter files
+ * asynchronously, returning a {@code CompletableFuture} for each operation
+ * instead of blocking the calling thread. The operations are run on an
+ * Executor, and each operation is retried according to a {@link RetryPolicy}.
+ * To avoid flooding a single disk or network share with requests, only a
+ * limited number of operations are run at once for each file system root.
+ * Operations beyond that limit are queued without blocking, and are started
+ * as earlier operations on the same root complete. <p>
+ *
+ * Since the operations block the thread they run on while they wait for the
+ * file system, an Executor meant for blocking tasks should be used when many
+ * operations are expected.
+ * @author Mosblinker
+ * @see FilesExtended#rename(File, File, RetryPolicy)
+ * @see FilesExtended#delete(File, RetryPolicy)
+ * @see FilesExtended#setHiddenAttribute(File, boolean)
+ */
+public class AsyncFileOperations {
+    /**
+     * The Executor used to run the operations.
+     */
+    private final Executor executor;
+    /**
+     * The maximum number of operations to run at once for each file system
+     * root.
+     */
+    private final int limit;
+    /**
+     * The RetryPolicy used to retry the operations.
+     */
+    private final RetryPolicy policy;
+    /**
+     * This maps the file system roots to the Limiters that control how many
+     * operations are running on them. The keys are lists containing the file
+     * system and the root.
+     */
+    private final Map<List<Object>, Limiter> limiters =
+            new ConcurrentHashMap<>();
+    /**
+     * This constructs an AsyncFileOperations that runs the operations on the
+     * given Executor.
+     * @param executor The Executor to run the operations on (cannot be null).
+     * @param limit The maximum number of operations to run at once for each
+     * file system root.
+     * @param policy The RetryPolicy used to retry the operations (cannot be
+     * null).
+     * @throws IllegalArgumentException If the limit is less than or equal to
+     * zero.
+     */
+    public AsyncFileOperations(Executor executor, int limit,
+            RetryPolicy policy){
+        if (limit <= 0)     // If the limit is not positive
+            throw new IllegalArgumentException("Limit must be positive (" +
+                    limit + " <= 0)");
+        this.executor = Objects.requireNonNull(executor);
+        this.limit = limit;
+        this.policy = Objects.requireNonNull(policy);
+    }
+    /**
+     * This constructs an AsyncFileOperations that runs the operations on the
+     * given Executor and uses the {@link RetryPolicy#DEFAULT default
+     * RetryPolicy}.
+     * @param executor The Executor to run the operations on (cannot be null).
+     * @param limit The maximum number of operations to run at once for each
+     * file system root.
+     * @throws IllegalArgumentException If the limit is less than or equal to
+     * zero.
+     */
+    public AsyncFileOperations(Executor executor, int limit){
+        this(executor,limit,RetryPolicy.DEFAULT);
+    }
+    /**
+     * This constructs an AsyncFileOperations that runs the operations on a 
+     * shared pool of daemon threads meant for blocking tasks and uses the 
+     * {@link RetryPolicy#DEFAULT default RetryPolicy}, running up to as many 
+     * operations at once for each file system root as there are processors. 
+     * The shared pool is separate from the common {@code ForkJoinPool}, so 
+     * operations that are waiting on the file system do not hold up parallel 
+     * walks or other tasks using the common pool.
+     */
+    public AsyncFileOperations(){
+        this(DefaultExecutorHolder.EXECUTOR,
+                Runtime.getRuntime().availableProcessors());
+    }
+    /**
+     * This returns the Executor used to run the operations.
+     * @return The Executor.
+     */
+    public Executor getExecutor(){
+        return executor;
+    }
+    /**
+     * This returns the maximum number of operations this runs at once for
+     * each file system root.
+     * @return The limit on the number of operations per file system root.
+     */
+    public int getLimit(){
+        return limit;
+    }
+    /**
+     * This returns the RetryPolicy used to retry the operations.
+     * @return The RetryPolicy.
+     */
+    public RetryPolicy getRetryPolicy(){
+        return policy;
+    }
+    /**
+     * This asynchronously renames the given source file to the given target
+     * file. If the rename fails, then the returned future completes
+     * exceptionally with the last exception thrown while renaming the file.
+     * @param source The file to rename.
+     * @param target The file path to rename to.
+     * @return A CompletableFuture that completes with the target file once
+     * the file has been renamed.
+     * @see FilesExtended#rename(File, File, RetryPolicy)
+     */
+    public CompletableFuture<File> rename(File source, File target){
+        return submit(source, () -> getResult(
+                FilesExtended.rename(source,target,policy),
+                "Unable to rename \"" + source + "\" to \"" + target + "\""));
+    }
+    /**
+     * This asynchronously deletes the given file. If the file could not be
+     * deleted, then the returned future completes exceptionally with the last
+     * exception thrown while deleting the file.
+     * @param file The file to delete.
+     * @return A CompletableFuture that completes once the file has been
+     * deleted or if the file did not exist.
+     * @see FilesExtended#delete(File, RetryPolicy)
+     */
+    public CompletableFuture<Void> delete(File file){
+        return submit(file, () -> {
+            getResult(FilesExtended.delete(file,policy),
+                    "Unable to delete \"" + file + "\"");
+            return null;
+        });
+    }
+    /**
+     * This asynchronously sets whether the given file is hidden. If the
+     * attribute could not be set, then the returned future completes
+     * exceptionally with an IOException.
+     * @param file The file to set the attribute of.
+     * @param hide Whether the file should be hidden.
+     * @return A CompletableFuture that completes with the abstract pathname
+     * directing to the hidden file.
+     * @see FilesExtended#setHiddenAttribute(File, boolean)
+     */
+    public CompletableFuture<File> setHiddenAttribute(File file, boolean hide){
+        return submit(file, () -> {
+            File result = FilesExtended.setHiddenAttribute(file, hide);
+            if (result == null) // If the attribute could not be set
+                throw new IOException("Unable to set whether \"" + file +
+                        "\" is hidden");
+            return result;
+        });
+    }
+    /**
+     * This asynchronously creates the given directory, along with any parent
+     * directories that do not exist. Unlike {@link
+     * FilesExtended#createDirectories(java.awt.Component, File)
+     * FilesExtended.createDirectories}, this does not show an error message
+     * if the directories could not be created, and instead completes the
+     * returned future exceptionally.
+     * @param dir The directory to create.
+     * @return A CompletableFuture that completes with the directory once it
+     * has been created or if it already existed as a directory.
+     * @see Files#createDirectories(Path, java.nio.file.attribute.FileAttribute...)
+     */
+    public CompletableFuture<File> createDirectories(File dir){
+        return submit(dir, () -> getResult(policy.run(() ->
+                Files.createDirectories(dir.toPath()).toFile()),
+                "Unable to create \"" + dir + "\""));
+    }
+    /**
+     * This returns the result of the given outcome, or throws the exception
+     * that caused it to fail.
+     * @param <T> The type of result.
+     * @param outcome The outcome of the operation.
+     * @param message The message to use if the outcome has no exception.
+     * @return The result of the outcome.
+     * @throws IOException If the operation did not succeed.
+     */
+    private static <T> T getResult(RetryPolicy.Outcome<T> outcome,
+            String message) throws IOException{
+        if (outcome.isSuccessful())     // If the operation succeeded
+            return outcome.getResult();
+        if (outcome.getException() != null)
+            throw outcome.getException();
+        throw new IOException(message);
+    }
+    /**
+     * This returns the Limiter for the file system root of the given file.
+     * @param file The file to get the Limiter for.
+     * @return The Limiter for the file's file system root.
+     */
+    private Limiter getLimiter(File file){
+        Object root;    // The root of the file
+        FileSystem fs;  // The file system of the file
+        try{
+            Path path = file.toPath().toAbsolutePath();
+            fs = path.getFileSystem();
+            root = path.getRoot();
+        }
+        catch (InvalidPathException | SecurityException ex){
+            fs = FileSystems.getDefault();
+            root = null;
+        }
+        return limiters.computeIfAbsent(Arrays.asList(fs,root),
+                (List<Object> k) -> new Limiter());
+    }
+    /**
+     * This queues the given operation on the Limiter for the given file.
+     * @param <T> The type of result returned by the operation.
+     * @param file The file the operation is performed on.
+     * @param callable The operation to perform.
+     * @return A CompletableFuture that completes with the result of the
+     * operation.
+     */
+    private <T> CompletableFuture<T> submit(File file, Callable<T> callable){
+        Operation<T> op = new Operation<>(callable);
+        getLimiter(file).submit(op);
+        return op.future;
+    }
+    /**
+     * This holds the shared Executor used by AsyncFileOperations that were 
+     * not given an Executor, so that the pool is only created once it is 
+     * needed.
+     */
+    private static class DefaultExecutorHolder{
+        /**
+         * The shared Executor. This creates daemon threads as needed and 
+         * reuses idle threads, so that it does not keep the JVM running. The 
+         * number of threads in use is bounded by the limit on the number of 
+         * operations running for each file system root.
+         */
+        static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(
+                (Runnable r) -> {
+                    Thread thread = new Thread(r, "AsyncFileOperations");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+    /**
+     * This is a queued operation that completes its future with the result of
+     * a Callable.
+     * @param <T> The type of result returned by the operation.
+     */
+    private static class Operation<T> implements Runnable{
+        /**
+         * The future completed by this operation.
+         */
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        /**
+         * The operation to perform.
+         */
+        private final Callable<T> callable;
+        /**
+         * This constructs an Operation that performs the given Callable.
+         * @param callable The operation to perform.
+         */
+        Operation(Callable<T> callable){
+            this.callable = callable;
+        }
+        @Override
+        public void run() {
+            if (future.isDone())    // If the future was cancelled
+                return;
+            try{
+                future.complete(callable.call());
+            }
+            catch (Throwable ex){
+                future.completeExceptionally(ex);
+            }
+        }
+    }
+    /**
+     * This limits the number of operations running at once on a file system
+     * root. Operations are added to a lock-free queue, and a worker is started 
+     * on the Executor for each queued operation while fewer than the limit of 
+     * workers are running. Each worker keeps running queued operations until 
+     * the queue is empty, so that the operations are run in a loop instead of 
+     * each finished operation starting the next one, which would recurse when 
+     * the Executor runs tasks on the calling thread.
+     */
+    private class Limiter{
+        /**
+         * The operations waiting to be started.
+         */
+        private final Queue<Operation<?>> queue = new ConcurrentLinkedQueue<>();
+        /**
+         * The number of workers currently running.
+         */
+        private final AtomicInteger active = new AtomicInteger();
+        /**
+         * This adds the given operation to the queue and starts a worker if 
+         * fewer than the limit of workers are running.
+         * @param op The operation to add.
+         */
+        void submit(Operation<?> op){
+            queue.add(op);
+                // While there are operations that could be waiting for a worker
+            while (!queue.isEmpty() && tryAcquire()){
+                try{
+                    executor.execute(this::runQueued);
+                }
+                catch (RejectedExecutionException ex){
+                    active.decrementAndGet();
+                    Operation<?> temp = queue.poll();
+                    if (temp != null)
+                        temp.future.completeExceptionally(ex);
+                }
+            }
+        }
+        /**
+         * This attempts to reserve a worker, failing if the limit of workers 
+         * are already running.
+         * @return Whether a worker was reserved.
+         */
+        private boolean tryAcquire(){
+            while (true){
+                int count = active.get();
+                if (count >= limit) // If the limit has been reached
+                    return false;
+                if (active.compareAndSet(count, count+1))
+                    return true;
+            }
+        }
+        /**
+         * This runs queued operations until the queue is empty, and then 
+         * releases this worker.
+         */
+        private void runQueued(){
+            do{
+                    // Run operations until there are none left
+                for (Operation<?> op = queue.poll(); op != null; 
+                        op = queue.poll())
+                    op.run();
+                active.decrementAndGet();
+                // If an operation was queued after the queue was found to be 
+                // empty, then keep going if there is still room for a worker
+            }
+            while (!queue.isEmpty() && tryAcquire());
+        }
+    }
+}
@@ -5,13 +5,25 @@
  */
 package files;
 
+import files.walk.FileTreeIterator;
+import files.walk.ParallelFileWalker;
+import files.walk.WalkOption;
+import files.wildcard.FileWildcard;
+import files.wildcard.PathWildcard;
 import java.awt.Component;
 import java.awt.Toolkit;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.IntUnaryOperator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 import javax.swing.JOptionPane;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
@@ -43,6 +55,47 @@ public class FilesExtended {
      * bracket and the right bracket.
      */
     protected static final String FILE_NUMBER_REGEX = "(\\Q%s\\E\\d+\\Q%s\\E)";
+    /**
+     * This caches the compiled file number Patterns for each pair of brackets, 
+     * so that the pattern does not need to be compiled every time a file 
+     * number is looked for. The keys are lists containing the left and right 
+     * brackets.
+     * @see #FILE_NUMBER_REGEX
+     */
+    private static final Map<List<String>, Pattern> FILE_NUMBER_PATTERNS = 
+            new ConcurrentHashMap<>();
+    /**
+     * This maps the numbered file names that have been reserved to the highest 
+     * file number reserved for them. This is used as a hint so that threads 
+     * reserving file paths for the same file name do not all start checking 
+     * from the same number. The keys are the sections of the file paths around 
+     * the file number and the brackets, separated by null characters.
+     * @see #reserveNextAvailableFilePath(File, String, String) 
+     */
+    private static final Map<String, AtomicInteger> RESERVED_FILE_NUMBERS = 
+            new ConcurrentHashMap<>();
+    /**
+     * The number of locks used to guard the operations that alter files. This 
+     * must be a power of two.
+     */
+    private static final int FILE_LOCK_COUNT = 64;
+    /**
+     * The striped locks used to guard the operations that alter files, such 
+     * as renaming and deleting files. Each file is guarded by the lock at the 
+     * index derived from its path, so that operations on unrelated files can 
+     * run at the same time while operations on the same file are still 
+     * performed one at a time. The locks are only held for a single attempt 
+     * at an operation, and are never held while waiting to retry or while 
+     * calling another operation that may retry, since the locks are shared by 
+     * every file that hashes to the same index.
+     * @see #lockFiles(File[]) 
+     */
+    private static final ReentrantLock[] FILE_LOCKS = 
+            new ReentrantLock[FILE_LOCK_COUNT];
+    static{
+        for (int i = 0; i < FILE_LOCKS.length; i++)
+            FILE_LOCKS[i] = new ReentrantLock();
+    }
     
     /**
      * This removes quotation marks around a String.
@@ -131,6 +184,21 @@ public class FilesExtended {
     public static boolean endsWithFileExtension(File file, String extension){
         return file != null && endsWithFileExtension(file.toString(),extension);
     }
+    /**
+     * This returns the Pattern used to find a file number between the given 
+     * brackets. The Patterns are cached, so each pair of brackets is only 
+     * compiled once.
+     * @param leftBracket The left bracket for the file number.
+     * @param rightBracket The right bracket for the file number.
+     * @return The Pattern for the file number.
+     * @see #FILE_NUMBER_REGEX
+     */
+    protected static Pattern getFileNumberPattern(String leftBracket, 
+            String rightBracket){
+        return FILE_NUMBER_PATTERNS.computeIfAbsent(List.of(leftBracket,
+                rightBracket), (List<String> k) -> Pattern.compile(
+                        String.format(FILE_NUMBER_REGEX, k.get(0), k.get(1))));
+    }
     /**
      * This returns a Matcher that can be used to find the file number in the 
      * name of the given file.
@@ -141,8 +209,8 @@ public class FilesExtended {
      */
     protected static Matcher getFileNumberMatcher(File file,String leftBracket,
             String rightBracket){
-        return Pattern.compile(String.format(FILE_NUMBER_REGEX, leftBracket,
-                rightBracket)).matcher(file.toString()).region(
+        return getFileNumberPattern(leftBracket,rightBracket).matcher(
+                file.toString()).region(
                         (file.getParent()!=null)?file.getParent().length()+1:0, 
                         removeFileExtension(file).length());
     }
@@ -305,6 +373,35 @@ public class FilesExtended {
             String rightBracket) {
         if (file.getName().isBlank())    // If the file name is blank
             return file;
+        return getNextAvailableFilePaths(file,leftBracket,rightBracket,1,
+                false).get(0);
+    }
+    /**
+     * This gets the given number of available file paths after the given 
+     * file, based on the first number in between the given brackets. The 
+     * returned file paths are the next file paths that do not exist, in order 
+     * of their file numbers. If {@code listParent} is true, then the parent 
+     * folder is listed once and the file paths are checked against its 
+     * contents in memory, instead of checking whether each file path exists 
+     * one at a time. If the parent folder cannot be listed, then each file 
+     * path is checked individually.
+     * <p>
+     * Precondition: The file name must not be blank.
+     * @param file The file to alter.
+     * @param leftBracket The left bracket for the file number.
+     * @param rightBracket The right bracket for the file number.
+     * @param count The number of file paths to get.
+     * @param listParent Whether to list the parent folder once rather than 
+     * checking each file path.
+     * @return A list of the next available file paths.
+     * @throws IllegalArgumentException If the count is negative.
+     */
+    protected static List<File> getNextAvailableFilePaths(File file, 
+            String leftBracket, String rightBracket, int count, 
+            boolean listParent){
+        if (count < 0)      // If the count is negative
+            throw new IllegalArgumentException("Count cannot be negative (" + 
+                    count + " < 0)");
             // The matcher used to find the file number
         Matcher matcher = getFileNumberMatcher(file,leftBracket,rightBracket);
             // Gets the current file number, or 0 of there is no file number 
@@ -312,15 +409,45 @@ public class FilesExtended {
                 leftBracket,rightBracket), 0);
             // This gets the sections of the file name.
         String[] sections = splitAtFileNumber(file,matcher);
-        File temp = null;   // This gets the next available file path
-            // A for loop to find the next available file path
-        for (int pos = num + 1; temp == null || temp.exists(); pos++){
-            temp = new File(changeFileNumber(file,sections,leftBracket,
+            // This gets the files in the parent folder, or null if each file 
+            // path is to be checked individually
+        Set<File> siblings = (listParent) ? listSiblings(file) : null;
+            // This gets the list of available file paths
+        List<File> files = new ArrayList<>(count);
+            // A for loop to find the next available file paths
+        for (int pos = num + 1; files.size() < count; pos++){
+            File temp = new File(changeFileNumber(file,sections,leftBracket,
                     rightBracket,pos));
+                // If the file path is available
+            if ((siblings != null) ? !siblings.contains(temp) : !temp.exists())
+                files.add(temp);
         }
-        return temp;
+        return files;
+    }
+    /**
+     * This lists the files that are in the same folder as the given file. The 
+     * returned files have the same parent path as the given file, so that they 
+     * can be compared with file paths derived from the given file.
+     * @param file The file whose folder is to be listed.
+     * @return A set of the files in the folder, or null if the folder could 
+     * not be listed.
+     */
+    static Set<File> listSiblings(File file){
+        File parent = file.getParentFile(); // Gets the parent folder
+        String[] names;     // This gets the names of the files in the folder
+        try{
+            names = ((parent != null) ? parent : new File(".")).list();
+        }
+        catch (SecurityException ex){
+            return null;
+        }
+        if (names == null)  // If the folder could not be listed
+            return null;
+        Set<File> siblings = new HashSet<>(names.length*4/3+1);
+        for (String name : names)   // Go through the names of the files
+            siblings.add(new File(parent,name));
+        return siblings;
     }
-    
     /**
      * This gets the next available file path, based on the first number in 
      * parenthesis.
@@ -331,29 +458,349 @@ public class FilesExtended {
         return getNextAvailableFilePath(file,"(",")");
     }
     /**
-     * This attempts to rename the given source file to the given target file.
+     * This gets the next available file path, based on the first number in 
+     * parenthesis. If {@code listParent} is true, then the parent folder is 
+     * listed once and the file paths are checked against its contents in 
+     * memory, which is faster than checking each file path when the folder 
+     * contains many numbered files. Since the folder is only listed once, a 
+     * file created after the folder has been listed will not be noticed.
+     * @param file The file to alter.
+     * @param listParent Whether to list the parent folder once rather than 
+     * checking each file path.
+     * @return The next available file path.
+     * @see #getNextAvailableFilePath(File) 
+     */
+    public static File getNextAvailableFilePath(File file, boolean listParent){
+        if (file.getName().isBlank())    // If the file name is blank
+            return file;
+        return getNextAvailableFilePaths(file,"(",")",1,listParent).get(0);
+    }
+    /**
+     * This gets the given number of available file paths after the given 
+     * file, based on the first number in parenthesis. The parent folder is 
+     * listed once, and the returned file paths are the next file paths that 
+     * are not in the folder, in order of their file numbers. This is useful 
+     * for finding names for a batch of new files at once.
+     * @param file The file to alter.
+     * @param count The number of file paths to get.
+     * @return A list of the next available file paths, or an empty list if 
+     * the file name is blank.
+     * @throws IllegalArgumentException If the count is negative.
+     * @see #getNextAvailableFilePath(File, boolean) 
+     */
+    public static List<File> getNextAvailableFilePaths(File file, int count){
+        if (file.getName().isBlank())    // If the file name is blank
+            return new ArrayList<>();
+        return getNextAvailableFilePaths(file,"(",")",count,true);
+    }
+    /**
+     * This reserves the next available file path, based on the first number 
+     * in between the given brackets, by creating a new empty file at that 
+     * path. The file is created atomically, and so the returned file path 
+     * will not be returned to any other thread or process that is also 
+     * reserving file paths. If the file path was taken before it could be 
+     * created, then this will move on to the next file number. Within this 
+     * JVM, the highest file number reserved for a file name is remembered so 
+     * that concurrent reservations do not check the same file paths 
+     * repeatedly, and so file numbers that are freed after being reserved may 
+     * be skipped.
+     * @param file The file to alter.
+     * @param leftBracket The left bracket for the file number.
+     * @param rightBracket The right bracket for the file number.
+     * @return The file path that was reserved.
+     * @throws IllegalArgumentException If the file name is blank.
+     * @throws IOException If an I/O error occurs while creating the file, such 
+     * as if the parent folder does not exist.
+     * @see Files#createFile(Path, java.nio.file.attribute.FileAttribute...) 
+     */
+    protected static File reserveNextAvailableFilePath(File file, 
+            String leftBracket, String rightBracket) throws IOException{
+        if (file.getName().isBlank())    // If the file name is blank
+            throw new IllegalArgumentException("File name cannot be blank");
+            // The matcher used to find the file number
+        Matcher matcher = getFileNumberMatcher(file,leftBracket,rightBracket);
+            // Gets the current file number, or 0 of there is no file number 
+        int num = Objects.requireNonNullElse(getCurrentFileNumber(matcher,
+                leftBracket,rightBracket), 0);
+            // This gets the sections of the file name.
+        String[] sections = splitAtFileNumber(file,matcher);
+            // If there are too many hints being remembered
+        if (RESERVED_FILE_NUMBERS.size() > MAX_LOOP_AMOUNT)
+            RESERVED_FILE_NUMBERS.clear();
+            // This gets the highest file number reserved for this file name
+        AtomicInteger reserved = RESERVED_FILE_NUMBERS.computeIfAbsent(
+                String.join("\0",sections[0],leftBracket,rightBracket,
+                        sections[1]), 
+                (String k) -> new AtomicInteger());
+            // A for loop to try each file number until one can be created
+        for (int pos = Math.max(num, reserved.get()) + 1; ; 
+                pos = Math.max(pos, reserved.get()) + 1){
+            File temp = new File(changeFileNumber(file,sections,leftBracket,
+                    rightBracket,pos));
+                // The file is locked so that it cannot be renamed over by a 
+                // rename or renumbering in this JVM while it is being created
+            int[] locks = lockFiles(temp);
+            try{
+                Files.createFile(temp.toPath());
+            }   // If the file path was already taken
+            catch (FileAlreadyExistsException ex){ 
+                continue;
+            }
+            finally{
+                unlockFiles(locks);
+            }
+            reserved.accumulateAndGet(pos, Math::max);
+            return temp;
+        }
+    }
+    /**
+     * This reserves the next available file path, based on the first number 
+     * in parenthesis, by creating a new empty file at that path. Unlike 
+     * {@link #getNextAvailableFilePath(File) getNextAvailableFilePath}, the 
+     * file path is claimed atomically when it is found, and so two threads or 
+     * processes reserving a file path at the same time will never be given 
+     * the same file path. If the file path was taken before it could be 
+     * created, then this will move on to the next file number. The returned 
+     * file can then be written to in place of the empty file. 
+     * @param file The file to alter.
+     * @return The file path that was reserved.
+     * @throws IllegalArgumentException If the file name is blank.
+     * @throws IOException If an I/O error occurs while creating the file, such 
+     * as if the parent folder does not exist.
+     * @see #getNextAvailableFilePath(File) 
+     */
+    public static File reserveNextAvailableFilePath(File file) 
+            throws IOException{
+        return reserveNextAvailableFilePath(file,"(",")");
+    }
+    /**
+     * This renames the numbered files that share the name of the given file, 
+     * giving each file the number returned by the given function for its 
+     * current file number. The files in the sequence are the files in the 
+     * same folder as the given file with the same name around the file number 
+     * in between the given brackets. The folder is only listed once, and the 
+     * renames are ordered so that no file is renamed onto a file that has not 
+     * yet been moved, using temporary names for any files that are swapped in 
+     * a cycle. Independent chains of renames are performed in parallel, using 
+     * up to the given number of threads. A number of 0 will remove the number 
+     * if it is at the end of the file name. <p>
+     * 
+     * Each rename is retried using the {@link RetryPolicy#DEFAULT default 
+     * RetryPolicy}. If any of the renames fail, then the rest of the renames 
+     * in the same chain are skipped, but the renames that have already been 
+     * performed are not undone. The exception is a cycle, which is undone if 
+     * it fails partway so that no file is left with its temporary name.
+     * @param file The file used as the template for the file names.
+     * @param leftBracket The left bracket for the file number.
+     * @param rightBracket The right bracket for the file number.
+     * @param numbering The function that returns the new file number for each 
+     * current file number.
+     * @param parallelism The maximum number of threads to use to rename files.
+     * @return A map of the files that were renamed to their new names.
+     * @throws IllegalArgumentException If the file name is blank, if the 
+     * function returns a negative number, if two files would be given the 
+     * same name, or if the parallelism is less than or equal to zero.
+     * @throws FileAlreadyExistsException If a file would be renamed onto a 
+     * file that is not being renamed. No files are renamed in this case.
+     * @throws IOException If the folder could not be listed or if any of the 
+     * renames failed.
+     */
+    protected static Map<File, File> renumberFiles(File file, 
+            String leftBracket, String rightBracket, IntUnaryOperator numbering,
+            int parallelism) throws IOException{
+        RenumberPlan plan = new RenumberPlan(file,leftBracket,rightBracket);
+        plan.plan(numbering);
+        return plan.execute(parallelism);
+    }
+    /**
+     * This renames the numbered files that share the name of the given file, 
+     * giving each file the number returned by the given function for its 
+     * current file number. The files in the sequence are the files in the 
+     * same folder as the given file with the same name around the first number 
+     * in parenthesis. The folder is only listed once, and the renames are 
+     * ordered so that no file is renamed onto a file that has not yet been 
+     * moved, using temporary names for any files that are swapped in a cycle. 
+     * Independent chains of renames are performed in parallel, using up to 
+     * the given number of threads. A number of 0 will remove the number if it 
+     * is at the end of the file name. <p>
+     * 
+     * Each rename is retried using the {@link RetryPolicy#DEFAULT default 
+     * RetryPolicy}. If any of the renames fail, then the rest of the renames 
+     * in the same chain are skipped, but the renames that have already been 
+     * performed are not undone. The exception is a cycle, which is undone if 
+     * it fails partway so that no file is left with its temporary name.
+     * @param file The file used as the template for the file names.
+     * @param numbering The function that returns the new file number for each 
+     * current file number.
+     * @param parallelism The maximum number of threads to use to rename files.
+     * @return A map of the files that were renamed to their new names.
+     * @throws IllegalArgumentException If the file name is blank, if the 
+     * function returns a negative number, if two files would be given the 
+     * same name, or if the parallelism is less than or equal to zero.
+     * @throws FileAlreadyExistsException If a file would be renamed onto a 
+     * file that is not being renamed. No files are renamed in this case.
+     * @throws IOException If the folder could not be listed or if any of the 
+     * renames failed.
+     * @see #compactFileNumbers(File, int) 
+     * @see #shiftFileNumbers(File, int, int) 
+     */
+    public static Map<File, File> renumberFiles(File file, 
+            IntUnaryOperator numbering, int parallelism) throws IOException{
+        return renumberFiles(file,"(",")",numbering,parallelism);
+    }
+    /**
+     * This renumbers the numbered files that share the name of the given file 
+     * so that there are no gaps between their file numbers. The files keep 
+     * their order, and are numbered starting from 1.
+     * @param file The file used as the template for the file names.
+     * @param parallelism The maximum number of threads to use to rename files.
+     * @return A map of the files that were renamed to their new names.
+     * @throws IllegalArgumentException If the file name is blank, if more 
+     * than one file has the same file number, or if the parallelism is less 
+     * than or equal to zero.
+     * @throws FileAlreadyExistsException If a file would be renamed onto a 
+     * file that is not being renamed. No files are renamed in this case.
+     * @throws IOException If the folder could not be listed or if any of the 
+     * renames failed.
+     * @see #renumberFiles(File, IntUnaryOperator, int) 
+     */
+    public static Map<File, File> compactFileNumbers(File file, 
+            int parallelism) throws IOException{
+        RenumberPlan plan = new RenumberPlan(file,"(",")");
+            // This maps the current file numbers to their new numbers
+        Map<Integer, Integer> numbers = new HashMap<>();
+        for (Integer num : plan.getFileNumbers().values())
+            numbers.putIfAbsent(num, numbers.size()+1);
+        plan.plan((int num) -> numbers.get(num));
+        return plan.execute(parallelism);
+    }
+    /**
+     * This adds the given offset to the file numbers of the numbered files 
+     * that share the name of the given file.
+     * @param file The file used as the template for the file names.
+     * @param offset The amount to add to each file number.
+     * @param parallelism The maximum number of threads to use to rename files.
+     * @return A map of the files that were renamed to their new names.
+     * @throws IllegalArgumentException If the file name is blank, if a file 
+     * number would become negative, or if the parallelism is less than or 
+     * equal to zero.
+     * @throws FileAlreadyExistsException If a file would be renamed onto a 
+     * file that is not being renamed. No files are renamed in this case.
+     * @throws IOException If the folder could not be listed or if any of the 
+     * renames failed.
+     * @see #renumberFiles(File, IntUnaryOperator, int) 
+     */
+    public static Map<File, File> shiftFileNumbers(File file, int offset, 
+            int parallelism) throws IOException{
+        return renumberFiles(file,(int num) -> num + offset,parallelism);
+    }
+    /**
+     * This returns the index of the lock in {@link #FILE_LOCKS} used for the 
+     * given file. The index is derived from the normalized absolute path of 
+     * the file, so that different paths to the same file use the same lock.
+     * @param file The file to get the lock index for.
+     * @return The index of the lock for the file.
+     */
+    private static int getLockIndex(File file){
+        int hash;   // The hash code of the file path
+        try{
+            hash = file.getAbsoluteFile().toPath().normalize().hashCode();
+        }
+        catch (InvalidPathException ex){
+            hash = file.getAbsoluteFile().hashCode();
+        }
+        return (hash ^ (hash >>> 16)) & (FILE_LOCKS.length - 1);
+    }
+    /**
+     * This acquires the locks for the given files. The locks are acquired in 
+     * order of their index, so that two threads locking the same files in a 
+     * different order cannot deadlock. Files that share a lock only lock it 
+     * once.
+     * @param files The files to lock.
+     * @return The sorted indexes of the locks that were acquired, to be given 
+     * to {@link #unlockFiles(int[]) unlockFiles}.
+     */
+    static int[] lockFiles(File... files){
+        int[] locks = new int[files.length];
+        for (int i = 0; i < files.length; i++)
+            locks[i] = getLockIndex(files[i]);
+        locks = Arrays.stream(locks).sorted().distinct().toArray();
+        for (int index : locks)
+            FILE_LOCKS[index].lock();
+        return locks;
+    }
+    /**
+     * This releases the locks that were acquired by {@link #lockFiles(File[]) 
+     * lockFiles}, in the reverse order they were acquired.
+     * @param locks The indexes of the locks to release.
+     */
+    static void unlockFiles(int[] locks){
+        for (int i = locks.length-1; i >= 0; i--)
+            FILE_LOCKS[locks[i]].unlock();
+    }
+    /**
+     * This returns the file path the given file would be renamed to in order 
+     * to toggle whether it is hidden on systems where files are hidden by 
+     * starting their name with a period.
+     * @param file The file to get the toggled path of.
+     * @return The file with a period added to or removed from the start of its 
+     * name.
+     */
+    private static File getHiddenToggledFile(File file){
+        String name = file.getName();       // The name of the file
+        String parent = file.getParent();   // Gets the parent
+        return new File(((parent!=null)?parent+File.separator:"")+
+                ((name.startsWith("."))?name.substring(1):"."+name));
+    }
+    /**
+     * This attempts to rename the given source file to the given target file, 
+     * retrying according to the given RetryPolicy if the rename fails. The 
+     * files are locked during each attempt, and so other operations on the 
+     * same files wait until the attempt is done. The locks are released while 
+     * waiting between attempts, so that a file that cannot be renamed does 
+     * not hold up other operations. If the source file is removed or the 
+     * target file is created in the meantime, then the rename stops.
      * <p> Precondition: The source file must exist. <p>
      * Precondition: The target file must not exist.
      * @param source The file to rename.
      * @param target The file path to rename to.
-     * @return If the file was successfully renamed.
+     * @param policy The RetryPolicy used to retry the rename (cannot be null).
+     * @return The outcome of the rename, the result of which is the target 
+     * file if the file was successfully renamed.
      * @throws FileNotFoundException If the source file does not exist.
      * @throws FileAlreadyExistsException If the target file exists.
+     * @throws SecurityException If a security manager denies access to either 
+     * file.
+     * @see RetryPolicy#DEFAULT
      */
-    public synchronized static boolean rename(File source, File target) throws 
-            FileNotFoundException, FileAlreadyExistsException {
+    public static RetryPolicy.Outcome<File> rename(File source, File target, 
+            RetryPolicy policy) throws FileNotFoundException, 
+            FileAlreadyExistsException {
+        Objects.requireNonNull(policy);
         if (source.equals(target))  // If the source and the target are the same
-            return true;
-        if (!source.exists())   // If the source does not exist
-            throw new FileNotFoundException("Source file, \""+ source + 
-                    "\", does not exist");
-        if (target.exists())    // If the target file exists
-            throw new FileAlreadyExistsException(target.toString(),
-                    source.toString(),
-                    "Target file, \"" + target + "\", already exists");
-            // While the file has not been moved
-        for (int tr = 0; tr < MAX_LOOP_AMOUNT && source.exists(); tr++) {
-            try {
+            return new RetryPolicy.Outcome<>(target,0,0,null);
+        int[] locks = lockFiles(source, target);
+        try{
+            if (!source.exists())   // If the source does not exist
+                throw new FileNotFoundException("Source file, \""+ source + 
+                        "\", does not exist");
+            if (target.exists())    // If the target file exists
+                throw new FileAlreadyExistsException(target.toString(),
+                        source.toString(),
+                        "Target file, \"" + target + "\", already exists");
+        }
+        finally{
+            unlockFiles(locks);
+        }
+        return policy.run(() -> {
+            int[] held = lockFiles(source, target);
+            try{    // If the source no longer exists
+                if (!source.exists())
+                    throw new NoSuchFileException(source.toString());
+                if (target.exists())    // If the target has since been created
+                    throw new FileAlreadyExistsException(target.toString(),
+                            source.toString(),"Target file, \"" + target + 
+                                    "\", already exists");
                 try{
                     Files.move(source.toPath(), target.toPath(), 
                             StandardCopyOption.REPLACE_EXISTING,
@@ -363,35 +810,80 @@ public class FilesExtended {
                     Files.move(source.toPath(), target.toPath(), 
                             StandardCopyOption.REPLACE_EXISTING);
                 }
-                return true;
+                return target;
             }
-            catch (IOException exc) { }
-            catch (SecurityException exc) {
-                return false;
+            finally{
+                unlockFiles(held);
             }
+        });
+    }
+    /**
+     * This attempts to rename the given source file to the given target file.
+     * This retries using the {@link RetryPolicy#DEFAULT default RetryPolicy}.
+     * <p> Precondition: The source file must exist. <p>
+     * Precondition: The target file must not exist.
+     * @param source The file to rename.
+     * @param target The file path to rename to.
+     * @return If the file was successfully renamed.
+     * @throws FileNotFoundException If the source file does not exist.
+     * @throws FileAlreadyExistsException If the target file exists.
+     * @see #rename(File, File, RetryPolicy) 
+     */
+    public static boolean rename(File source, File target) throws 
+            FileNotFoundException, FileAlreadyExistsException {
+        try{
+            return rename(source,target,RetryPolicy.DEFAULT).isSuccessful();
+        }
+        catch (SecurityException exc) {
+            return false;
         }
-        return false;
     }
     /**
-     * This attempts to delete the given file.
+     * This attempts to delete the given file, retrying according to the given 
+     * RetryPolicy if the file could not be deleted. The file is locked during 
+     * each attempt, and so other operations on the file wait until the attempt 
+     * is done. The lock is released while waiting between attempts, so that a 
+     * file that cannot be deleted does not hold up other operations.
      * @param source The file to delete.
-     * @return Whether the file was successfully deleted.
+     * @param policy The RetryPolicy used to retry deleting the file (cannot be 
+     * null).
+     * @return The outcome of deleting the file, which is successful if the 
+     * file was deleted or did not exist.
+     * @throws SecurityException If a security manager denies access to the 
+     * file.
+     * @see RetryPolicy#DEFAULT
      */
-    public synchronized static boolean delete(File source) {
+    public static RetryPolicy.Outcome<Boolean> delete(File source, 
+            RetryPolicy policy) {
+        Objects.requireNonNull(policy);
         if (!source.exists())   // If the file does not exist
-            return true;
-            // While the file has not been deleted
-        for (int tr = 0; tr < MAX_LOOP_AMOUNT && source.exists(); tr++) {
-            try {   // If the file has been deleted
-                if (Files.deleteIfExists(source.toPath()))
-                    return true;
+            return new RetryPolicy.Outcome<>(true,0,0,null);
+        return policy.run(() -> {
+            int[] locks = lockFiles(source);
+            try{    // Deletes the file if it still exists. If it was removed 
+                    // since the last attempt, then it has still been deleted
+                Files.deleteIfExists(source.toPath());
+                return true;
             }
-            catch (IOException exc) { }
-            catch (SecurityException exc){
-                return false;
+            finally{
+                unlockFiles(locks);
             }
+        });
+    }
+    /**
+     * This attempts to delete the given file. This retries using the {@link 
+     * RetryPolicy#DEFAULT default RetryPolicy}.
+     * @param source The file to delete.
+     * @return Whether the file was successfully deleted.
+     * @see #delete(File, RetryPolicy) 
+     */
+    public static boolean delete(File source) {
+        try{
+            return delete(source,RetryPolicy.DEFAULT).isSuccessful();
+        }
+        catch (SecurityException exc){
+            return false;
         }
-        return false;
     }
     /**
      * This attempts to set whether the given file is hidden. <p>
@@ -405,27 +897,33 @@ public class FilesExtended {
      * @throws java.io.FileNotFoundException If the file does not exist.
      * @see File#isHidden() 
      */
-    public synchronized static File setHiddenAttribute(File file,boolean hide)
+    public static File setHiddenAttribute(File file,boolean hide)
             throws FileNotFoundException{
         if (!file.exists()) // If the file does not exist
             throw new FileNotFoundException("File, \""+file+"\", does not exist");
         try{
             try{    // A for loop to attempt to apply the dos:hidden attribute
                 for (int t = 0;t< MAX_LOOP_AMOUNT&&file.isHidden() != hide;t++){
+                        // Only lock the file for this attempt, so that files 
+                        // sharing the lock can be used between attempts
+                    int[] locks = lockFiles(file);
                     try{
                         file = Files.setAttribute(file.toPath(), "dos:hidden", hide).toFile();
                     }
                     catch (IOException ex){}
+                    finally{
+                        unlockFiles(locks);
+                    }
                 }
-            }   // Catches it if the dos attribute is not supported
+            }   // Catches it if the dos attribute is not supported. No locks 
+                // are held here, since rename locks the files for each attempt 
+                // and releases them while it waits to retry
             catch (UnsupportedOperationException ex){
                 String name = file.getName();       // The name of the file
                     // If whether it starts with a period does not match up with
                 if(name.startsWith(".")!=hide){//whether the file is to be hidden
-                    String parent = file.getParent();   // Gets the parent
                         // The new name for the file
-                    File temp=new File(((parent!=null)?parent+File.separator:"")
-                            +((hide)?"."+name:name.substring(1)));
+                    File temp = getHiddenToggledFile(file);
                         // A for loop to try and rename the file. If successfully
                         // renamed, but the file is still hidden, this causes 
                         // the file to be reverted back to the original name
@@ -524,14 +1022,8 @@ public class FilesExtended {
      */
     public static ArrayList <File> getFilesFromFolder(File file, 
             ArrayList <File> files, java.io.FileFilter filter, int depth) {
-        if (filter == null)     // If the filter is null
-            filter = new java.io.FileFilter() {
-                @Override
-                public boolean accept(File pathname) {
-                    return true;
-                }
-            };
-        return getFilesFromFolder(file,files,filter,depth,0);
+        return getFilesFromFolder(new FileTreeIterator(file.toPath(),filter,
+                depth),files);
     }
     /**
      * This adds files from the given folder, inclusive, using the given 
@@ -550,7 +1042,7 @@ public class FilesExtended {
      * using the given FileFilter, up until the given maximum subfolder depth.
      * @param file The file or folder to add.
      * @param files The ArrayList of files to add to.
-     * @param filter The filter for the files.
+     * @param filter The filter for the files, or null if no filter.
      * @param depth The maximum subfolder depth, or negative if unlimited.
      * @param curDepth The current subfolder depth.
      * @return The ArrayList of files after the found files have been added.
@@ -561,19 +1053,425 @@ public class FilesExtended {
             // If the current depth is greater than the maximum depth and the 
         if (depth >= 0 && curDepth > depth) // maximum depth is not negative
             return files;
-        if (filter.accept(file)){       // If the file itself is accepted
-            if (!files.contains(file))  // If the file has not been added yet
-                files.add(file);
-            if (file.isDirectory()) {   // If the file is a directory
-                    // Gets all the files in the folder
-                File[] arr=file.listFiles(filter);
-                if (arr != null)        // If the array is not null
-                    for (File temp :arr)// For all the files in the folder
-                        getFilesFromFolder(temp,files,filter,depth,curDepth+1);
+            // Walk the rest of the way down to the maximum depth
+        return getFilesFromFolder(new FileTreeIterator(file.toPath(),filter,
+                (depth < 0) ? depth : depth - curDepth),files);
+    }
+    /**
+     * This adds files from the given folder, inclusive, to the given ArrayList,
+     * using the given FileFilter for the files to add and the given directory 
+     * filter for the subfolders to search, up until the given subfolder depth. 
+     * Unlike with {@link #getFilesFromFolder(File, ArrayList, 
+     * java.io.FileFilter, int) getFilesFromFolder(File, ArrayList, FileFilter, 
+     * int)}, subfolders do not need to be accepted by the file filter to be 
+     * searched, and subfolders that are rejected by the directory filter are 
+     * skipped entirely without being read.
+     * @param file The file or folder to add.
+     * @param files The ArrayList of files to add to.
+     * @param filter The filter for the files to add, or null if all files are 
+     * to be added.
+     * @param descendFilter The filter for the subfolders to search, or null 
+     * if all subfolders are to be searched.
+     * @param depth The maximum subfolder depth, or negative if unlimited.
+     * @param options The options for how to walk the folder, such as whether 
+     * to detect cycles caused by symbolic links.
+     * @return The ArrayList of files after the found files have been added.
+     * @see FileTreeIterator#FileTreeIterator(Path, java.io.FileFilter, 
+     * java.io.FileFilter, int, WalkOption...) 
+     * @see WalkOption
+     */
+    public static ArrayList <File> getFilesFromFolder(File file, 
+            ArrayList <File> files, java.io.FileFilter filter, 
+            java.io.FileFilter descendFilter, int depth, 
+            WalkOption... options) {
+        return getFilesFromFolder(new FileTreeIterator(file.toPath(),filter,
+                descendFilter,depth,options),files);
+    }
+    /**
+     * This returns the files in the given folder, inclusive, using the given 
+     * FileFilter for the files to add and the given directory filter for the 
+     * subfolders to search, up until the given subfolder depth.
+     * @param file The file or folder to add.
+     * @param filter The filter for the files to add, or null if all files are 
+     * to be added.
+     * @param descendFilter The filter for the subfolders to search, or null 
+     * if all subfolders are to be searched.
+     * @param depth The maximum subfolder depth, or negative if unlimited.
+     * @param options The options for how to walk the folder, such as whether 
+     * to detect cycles caused by symbolic links.
+     * @return An ArrayList of files that have been found.
+     * @see #getFilesFromFolder(File, ArrayList, java.io.FileFilter, 
+     * java.io.FileFilter, int, WalkOption...) 
+     */
+    public static ArrayList <File> getFilesFromFolder(File file, 
+            java.io.FileFilter filter, java.io.FileFilter descendFilter, 
+            int depth, WalkOption... options) {
+        return getFilesFromFolder(file,new ArrayList<File>(),filter,
+                descendFilter,depth,options);
+    }
+    /**
+     * This returns the files in the given folder whose paths relative to the 
+     * folder match the given PathWildcard. The search starts at the literal 
+     * prefix of the wildcard, and subfolders that cannot contain any matching 
+     * files are skipped without being read.
+     * @param file The folder to search.
+     * @param wildcard The wildcard for the relative paths of the files.
+     * @param options The options for how to walk the folder, such as whether 
+     * to detect cycles caused by symbolic links.
+     * @return An ArrayList of files that have been found.
+     * @see PathWildcard#getStart(Path) 
+     * @see PathWildcard#getFileFilter(Path) 
+     * @see PathWildcard#getDescendFilter(Path) 
+     */
+    public static ArrayList <File> getFilesFromFolder(File file, 
+            PathWildcard wildcard, WalkOption... options){
+        Path root = file.toPath();
+            // Gets the path to start at, which is the root with the literal 
+            // prefix of the wildcard resolved against it
+        Path start = wildcard.getStart(root);
+            // If the start path does not exist. Since the filters only look at 
+            // the paths of the files, this is checked here so that a wildcard 
+            // with only literal segments does not return a missing file
+        if (!Files.exists(start))
+            return new ArrayList<>();
+        return getFilesFromFolder(new FileTreeIterator(start,
+                wildcard.getFileFilter(root),wildcard.getDescendFilter(root),
+                wildcard.getMaximumDepth(),options),new ArrayList<>());
+    }
+    /**
+     * This adds the files returned by the given FileTreeIterator to the given 
+     * ArrayList, skipping any files that are already in the ArrayList. The 
+     * iterator will be closed once this is done.
+     * @param itr The FileTreeIterator to get the files from.
+     * @param files The ArrayList of files to add to.
+     * @return The ArrayList of files after the found files have been added.
+     */
+    private static ArrayList <File> getFilesFromFolder(FileTreeIterator itr, 
+            ArrayList <File> files){
+            // This contains the files that are already in the list, so that 
+            // checking for duplicates does not require searching the list
+        Set<File> added = new HashSet<>(files);
+        try (itr){
+            while (itr.hasNext()){  // While there are files left
+                File temp = itr.next().toFile();
+                if (added.add(temp))// If the file has not been added yet
+                    files.add(temp);
             }
         }
         return files;
     }
+    /**
+     * This passes the paths of the files in the given folder, inclusive, to 
+     * the given Consumer, using the given FileFilter for the files to pass on 
+     * and the given directory filter for the subfolders to search, up until 
+     * the given subfolder depth. Unlike {@link #getFilesFromFolder(File, 
+     * ArrayList, java.io.FileFilter, java.io.FileFilter, int, WalkOption...) 
+     * getFilesFromFolder}, the files are not collected into a list and are not 
+     * checked against the files found so far, allowing the files to be sent 
+     * straight to a queue, a database, or a file as they are found.
+     * @param file The file or folder to start at.
+     * @param filter The filter for the files to pass on, or null if all files 
+     * are to be passed on.
+     * @param descendFilter The filter for the subfolders to search, or null 
+     * if all subfolders are to be searched.
+     * @param depth The maximum subfolder depth, or negative if unlimited.
+     * @param action The Consumer to pass the paths to.
+     * @param options The options for how to walk the folder, such as whether 
+     * to detect cycles caused by symbolic links.
+     * @return The number of paths that were passed to the Consumer.
+     * @see FileTreeIterator#FileTreeIterator(Path, java.io.FileFilter, 
+     * java.io.FileFilter, int, WalkOption...) 
+     * @see files.walk.BatchingConsumer
+     * @see WalkOption
+     */
+    public static long forEachFileInFolder(File file, 
+            java.io.FileFilter filter, java.io.FileFilter descendFilter, 
+            int depth, Consumer<? super Path> action, WalkOption... options){
+        Objects.requireNonNull(action);
+        long count = 0;     // The number of paths passed to the Consumer
+        try (FileTreeIterator itr = new FileTreeIterator(file.toPath(),filter,
+                descendFilter,depth,options)){
+            while (itr.hasNext()){  // While there are files left
+                action.accept(itr.next());
+                count++;
+            }
+        }
+        return count;
+    }
+    /**
+     * This passes the paths of the files in the given folder, inclusive, to 
+     * the given Consumer, using the given FileFilter and up until the given 
+     * subfolder depth. This accepts the same files as {@link 
+     * #getFilesFromFolder(File, ArrayList, java.io.FileFilter, int) 
+     * getFilesFromFolder}, but the files are not collected into a list.
+     * @param file The file or folder to start at.
+     * @param filter The filter for the files, or null if no filter.
+     * @param depth The maximum subfolder depth, or negative if unlimited.
+     * @param action The Consumer to pass the paths to.
+     * @return The number of paths that were passed to the Consumer.
+     * @see #forEachFileInFolder(File, java.io.FileFilter, java.io.FileFilter, 
+     * int, Consumer, WalkOption...) 
+     */
+    public static long forEachFileInFolder(File file, 
+            java.io.FileFilter filter, int depth, 
+            Consumer<? super Path> action){
+        return forEachFileInFolder(file,filter,filter,depth,action);
+    }
+    /**
+     * This returns the files in the given directory that match the given 
+     * wildcard, much like {@link File#listFiles(java.io.FileFilter) 
+     * File.listFiles}. If the wildcard is for the same FileSystem as the 
+     * directory, then the wildcard is given to the FileSystem so that it can 
+     * filter the directory's contents while listing them, and objects are not 
+     * created for the files that do not match. 
+     * @param dir The directory to list.
+     * @param wildcard The wildcard for the files to return.
+     * @return An array of the files in the directory that match the wildcard, 
+     * or null if the directory could not be read.
+     * @see Files#newDirectoryStream(Path, String) 
+     */
+    public static File[] listFiles(File dir, FileWildcard wildcard){
+        Path path;
+        try{
+            path = dir.toPath();
+        }
+        catch (InvalidPathException ex){
+            return dir.listFiles(wildcard);
+        }   // If the wildcard is for a different file system
+        if (wildcard.getFileSystem() != path.getFileSystem())
+            return dir.listFiles(wildcard);
+            // This gets the list of files that match
+        ArrayList<File> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = (wildcard.isMatchAll()) ? 
+                Files.newDirectoryStream(path) : 
+                Files.newDirectoryStream(path, wildcard.toString())){
+            for (Path temp : stream)    // Go through the directory's contents
+                files.add(temp.toFile());
+        }
+        catch (IOException | DirectoryIteratorException | SecurityException ex){
+            return null;
+        }
+        return files.toArray(new File[files.size()]);
+    }
+    /**
+     * This returns the files in the given folder, inclusive, using the given 
+     * FileFilter and up until the given subfolder depth, scanning the 
+     * subfolders in parallel. This accepts the same files as {@link 
+     * #getFilesFromFolder(File, java.io.FileFilter, int) getFilesFromFolder}, 
+     * but the order of the returned files is not defined. The filter may be 
+     * called by multiple threads at once.
+     * @param file The file or folder to add.
+     * @param filter The filter for the files, or null if no filter.
+     * @param depth The maximum subfolder depth, or negative if unlimited.
+     * @param parallelism The number of threads to use to scan the folder.
+     * @param options The options for how to walk the file tree.
+     * @return An ArrayList of files that have been found.
+     * @throws IllegalArgumentException If the parallelism is less than or 
+     * equal to zero.
+     * @see ParallelFileWalker
+     * @see WalkOption
+     */
+    public static ArrayList<File> getFilesFromFolderParallel(File file, 
+            java.io.FileFilter filter, int depth, int parallelism, 
+            WalkOption... options){
+            // This gets the list of files that have been found
+        ArrayList<File> files = new ArrayList<>();
+        try (ParallelFileWalker walker = new ParallelFileWalker(parallelism)){
+                // Go through the found paths
+            for (Path path : walker.walk(file.toPath(),filter,depth,
+                    new ConcurrentLinkedQueue<>(),options))
+                files.add(path.toFile());
+        }
+        return files;
+    }
+    /**
+     * This returns a lazily populated Stream of the paths of the files in the 
+     * given folder, inclusive, using the given FileFilter and up until the 
+     * given subfolder depth. This accepts the same files as {@link 
+     * #getFilesFromFolder(File, ArrayList, java.io.FileFilter, int) 
+     * getFilesFromFolder}, but the folder is only read as the Stream is 
+     * consumed, and the files are not collected into a list. The returned 
+     * Stream holds open directories, and so it should be closed once it is no 
+     * longer needed, such as by using a try-with-resources statement.
+     * @param file The file or folder to start at.
+     * @param filter The filter for the files, or null if no filter.
+     * @param depth The maximum subfolder depth, or negative if unlimited.
+     * @return A Stream of the paths of the files that have been found.
+     * @see FileTreeIterator
+     */
+    public static Stream<Path> streamFilesFromFolder(File file, 
+            java.io.FileFilter filter, int depth){
+        return new FileTreeIterator(file.toPath(),filter,depth).stream();
+    }
+    /**
+     * This returns a lazily populated Stream of the paths of the files in the 
+     * given folder, inclusive, using the given FileFilter for the files to 
+     * include and the given directory filter for the subfolders to search, up 
+     * until the given subfolder depth. Subfolders that are rejected by the 
+     * directory filter are skipped without being read. The returned Stream 
+     * should be closed once it is no longer needed.
+     * @param file The file or folder to start at.
+     * @param filter The filter for the files to include, or null if all files 
+     * are to be included.
+     * @param descendFilter The filter for the subfolders to search, or null 
+     * if all subfolders are to be searched.
+     * @param depth The maximum subfolder depth, or negative if unlimited.
+     * @param options The options for how to walk the folder, such as whether 
+     * to detect cycles caused by symbolic links.
+     * @return A Stream of the paths of the files that have been found.
+     * @see FileTreeIterator#FileTreeIterator(Path, java.io.FileFilter, 
+     * java.io.FileFilter, int, WalkOption...) 
+     * @see WalkOption
+     */
+    public static Stream<Path> streamFilesFromFolder(File file, 
+            java.io.FileFilter filter, java.io.FileFilter descendFilter, 
+            int depth, WalkOption... options){
+        return new FileTreeIterator(file.toPath(),filter,descendFilter,depth,
+                options).stream();
+    }
+    /**
+     * This returns a lazily populated Stream of the paths of the files in the 
+     * given folder, inclusive, using the given FileFilter. The returned Stream 
+     * should be closed once it is no longer needed.
+     * @param file The file or folder to start at.
+     * @param filter The filter for the files, or null if no filter.
+     * @return A Stream of the paths of the files that have been found.
+     * @see #streamFilesFromFolder(File, java.io.FileFilter, int) 
+     */
+    public static Stream<Path> streamFilesFromFolder(File file, 
+            java.io.FileFilter filter){
+        return streamFilesFromFolder(file,filter,-1);
+    }
+    /**
+     * This returns a lazily populated Stream of the paths of the files in the 
+     * given folder, inclusive. The returned Stream should be closed once it is 
+     * no longer needed.
+     * @param file The file or folder to start at.
+     * @return A Stream of the paths of the files that have been found.
+     * @see #streamFilesFromFolder(File, java.io.FileFilter, int) 
+     */
+    public static Stream<Path> streamFilesFromFolder(File file){
+        return streamFilesFromFolder(file,null);
+    }
+    /**
+     * This searches the given folder, inclusive, for files that are accepted 
+     * by the given FileFilter, searching the subfolders that are accepted by 
+     * the given directory filter up until the given subfolder depth, and 
+     * returns up to the given number of files. The search stops as soon as 
+     * enough files have been found, and no further folders are read. Use the 
+     * {@link WalkOption#BREADTH_FIRST BREADTH_FIRST} option to find the files 
+     * closest to the given folder first.
+     * @param file The file or folder to search.
+     * @param filter The filter for the files to find, or null if all files 
+     * are to be found.
+     * @param descendFilter The filter for the subfolders to search, or null 
+     * if all subfolders are to be searched.
+     * @param depth The maximum subfolder depth, or negative if unlimited.
+     * @param limit The maximum number of files to return, or negative if 
+     * unlimited.
+     * @param options The options for how to walk the folder.
+     * @return An ArrayList of up to {@code limit} files that have been found.
+     * @see FileTreeIterator#FileTreeIterator(Path, java.io.FileFilter, 
+     * java.io.FileFilter, int, WalkOption...) 
+     * @see WalkOption
+     */
+    public static ArrayList<File> findFiles(File file, 
+            java.io.FileFilter filter, java.io.FileFilter descendFilter, 
+            int depth, int limit, WalkOption... options){
+            // This gets the list of files that have been found
+        ArrayList<File> files = new ArrayList<>();
+        try (FileTreeIterator itr = new FileTreeIterator(file.toPath(),filter,
+                descendFilter,depth,options)){
+                // While more files are needed and there are files left
+            while ((limit < 0 || files.size() < limit) && itr.hasNext())
+                files.add(itr.next().toFile());
+        }
+        return files;
+    }
+    /**
+     * This searches the given folder, inclusive, and all its subfolders up 
+     * until the given subfolder depth for files that are accepted by the 
+     * given FileFilter, and returns up to the given number of files. Unlike 
+     * with {@link #getFilesFromFolder(File, java.io.FileFilter, int) 
+     * getFilesFromFolder}, subfolders do not need to be accepted by the filter 
+     * to be searched. The search stops as soon as enough files have been 
+     * found.
+     * @param file The file or folder to search.
+     * @param filter The filter for the files to find, or null if all files 
+     * are to be found.
+     * @param depth The maximum subfolder depth, or negative if unlimited.
+     * @param limit The maximum number of files to return, or negative if 
+     * unlimited.
+     * @param options The options for how to walk the folder.
+     * @return An ArrayList of up to {@code limit} files that have been found.
+     * @see #findFiles(File, java.io.FileFilter, java.io.FileFilter, int, int, 
+     * WalkOption...) 
+     */
+    public static ArrayList<File> findFiles(File file, 
+            java.io.FileFilter filter, int depth, int limit, 
+            WalkOption... options){
+        return findFiles(file,filter,null,depth,limit,options);
+    }
+    /**
+     * This searches the given folder, inclusive, for a file that is accepted 
+     * by the given FileFilter, searching the subfolders that are accepted by 
+     * the given directory filter up until the given subfolder depth, and 
+     * returns the first file that is found. The search stops as soon as a 
+     * file has been found.
+     * @param file The file or folder to search.
+     * @param filter The filter for the file to find, or null if any file 
+     * will do.
+     * @param descendFilter The filter for the subfolders to search, or null 
+     * if all subfolders are to be searched.
+     * @param depth The maximum subfolder depth, or negative if unlimited.
+     * @param options The options for how to walk the folder.
+     * @return The first file that was found, or null if no file was found.
+     * @see #findFiles(File, java.io.FileFilter, java.io.FileFilter, int, int, 
+     * WalkOption...) 
+     */
+    public static File findFirstFile(File file, java.io.FileFilter filter, 
+            java.io.FileFilter descendFilter, int depth, 
+            WalkOption... options){
+        try (FileTreeIterator itr = new FileTreeIterator(file.toPath(),filter,
+                descendFilter,depth,options)){
+            return (itr.hasNext()) ? itr.next().toFile() : null;
+        }
+    }
+    /**
+     * This searches the given folder, inclusive, and all its subfolders up 
+     * until the given subfolder depth for a file that is accepted by the given 
+     * FileFilter, and returns the first file that is found. The search stops 
+     * as soon as a file has been found.
+     * @param file The file or folder to search.
+     * @param filter The filter for the file to find, or null if any file 
+     * will do.
+     * @param depth The maximum subfolder depth, or negative if unlimited.
+     * @param options The options for how to walk the folder.
+     * @return The first file that was found, or null if no file was found.
+     * @see #findFirstFile(File, java.io.FileFilter, java.io.FileFilter, int, 
+     * WalkOption...) 
+     */
+    public static File findFirstFile(File file, java.io.FileFilter filter, 
+            int depth, WalkOption... options){
+        return findFirstFile(file,filter,null,depth,options);
+    }
+    /**
+     * This returns whether the given folder, inclusive, or any of its 
+     * subfolders up until the given subfolder depth contain a file that is 
+     * accepted by the given FileFilter. The search stops as soon as a file 
+     * has been found.
+     * @param file The file or folder to search.
+     * @param filter The filter for the file to find, or null if any file 
+     * will do.
+     * @param depth The maximum subfolder depth, or negative if unlimited.
+     * @param options The options for how to walk the folder.
+     * @return Whether a file accepted by the filter was found.
+     * @see #findFirstFile(File, java.io.FileFilter, int, WalkOption...) 
+     */
+    public static boolean containsFile(File file, java.io.FileFilter filter, 
+            int depth, WalkOption... options){
+        return findFirstFile(file,filter,depth,options) != null;
+    }
     /**
      * This adds files from a String listing the files to an ArrayList of Files.
      * <p>
@@ -584,20 +1482,33 @@ public class FilesExtended {
      */
     public static ArrayList<File> getFilesFromString(String fileList, 
             ArrayList<File> files) {
-        fileList = removeQuotations(fileList);
-            // Matcher used to split the file paths
-        Matcher matcher = PATH_SEPARATOR_PATTERN.matcher(fileList);
-        int start = 0;          // The start of the next file path
-        while(matcher.find()){  // If the matcher finds something
-                // Get the next file path, with the quotations removed
-            String temp=fileList.substring(start,matcher.start());
-            if (!temp.isBlank())    // If the file path is blank
-                files.add(new File(temp));
-            start = matcher.end();
-        }
-        fileList = fileList.substring(start);
-        if (!fileList.isBlank())    // If the file path is blank
-            files.add(new File(fileList));
+        try{
+            return getFilesFromReader(new StringReader(fileList),files);
+        }   // A StringReader does not throw IOExceptions
+        catch (IOException ex){
+            throw new UncheckedIOException(ex);
+        }
+    }
+    /**
+     * This adds files from a Reader listing the files to an ArrayList of 
+     * Files. This accepts the same format as {@link #getFilesFromString(String, 
+     * ArrayList) getFilesFromString}, but the list is read incrementally, and 
+     * so the entire list does not need to be held in memory at once. The 
+     * Reader is not closed. <p>
+     * Postcondition: This will alter the given ArrayList.
+     * @param in The Reader to read the file paths from.
+     * @param files The ArrayList of files to add to.
+     * @return The given ArrayList after the files have been added.
+     * @throws IOException If an I/O error occurs while reading.
+     * @see PathListTokenizer
+     */
+    public static ArrayList<File> getFilesFromReader(Reader in, 
+            ArrayList<File> files) throws IOException{
+        PathListTokenizer tokenizer = new PathListTokenizer(in,
+                PathListTokenizer.Mode.FILES);
+        String path;            // The next file path
+        while ((path = tokenizer.nextToken()) != null)
+            files.add(new File(path));
         return files;
     }
     /**
@@ -657,13 +1568,12 @@ public class FilesExtended {
      * @return The List of files with duplicates removed.
      */
     public static List <File> removeDuplicateFiles(List <File> files){
-            // A for loop to find duplicates
-        for (int pos = 0; pos < files.size(); pos++) {
-            File temp = files.get(pos);     // The element to check for
-                // While the last index of the element is not the current one
-            while (files.lastIndexOf(temp) != pos){
-                files.remove(files.lastIndexOf(temp));
-            }
+            // This gets the files without duplicates, keeping the first 
+            // occurrence of each file in order
+        Set<File> unique = new LinkedHashSet<>(files);
+        if (unique.size() != files.size()){ // If there are duplicates
+            files.clear();
+            files.addAll(unique);
         }
         return files;
     }
@@ -678,10 +1588,45 @@ public class FilesExtended {
         removeDuplicateFiles(files);
         if (files.isEmpty())     // If there are no files.
             return "";
-        String paths = "";       // This gets the string containing the files
-        for (File temp : files)  // A for loop to go though the files
-            paths += "\"" + temp + "\"" + File.pathSeparator + " ";
-        return paths.substring(0,paths.length()-(File.pathSeparator.length()+1));
+            // This gets the estimated length of the list, which is the length 
+        int length = 0;         // of the files plus the quotes and separators
+        for (File temp : files)
+            length += temp.getPath().length() + 3 + File.pathSeparator.length();
+            // This gets the builder for the string containing the files
+        StringBuilder paths = new StringBuilder(length);
+        try{
+            writeFileList(files,paths);
+        }   // A StringBuilder does not throw IOExceptions
+        catch (IOException ex){
+            throw new UncheckedIOException(ex);
+        }
+        return paths.toString();
+    }
+    /**
+     * This writes the given files to the given Appendable, such as a Writer 
+     * or a StringBuilder, in the same format as {@link #getFileList(List) 
+     * getFileList}. Each file is surrounded by quotation marks, and the files 
+     * are separated by the native system's path separator and a space. The 
+     * files are written as they are, without removing any duplicates, so this 
+     * can be used to write very large lists without building a String. The 
+     * list that is written can be read by {@link #getFilesFromReader(Reader, 
+     * ArrayList) getFilesFromReader}.
+     * @param files The files to write.
+     * @param out The Appendable to write to.
+     * @return The given Appendable.
+     * @throws IOException If an I/O error occurs.
+     * @see #getFileList(List) 
+     */
+    public static Appendable writeFileList(Iterable<File> files, 
+            Appendable out) throws IOException{
+        boolean first = true;   // Whether this is the first file
+        for (File temp : files){// A for loop to go though the files
+            if (!first)         // If this is not the first file
+                out.append(File.pathSeparator).append(' ');
+            out.append('\"').append(temp.getPath()).append('\"');
+            first = false;
+        }
+        return out;
     }
     /**
      * This generates a FileNameExtensionFilter with the given description and 
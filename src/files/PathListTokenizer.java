@@ -0,0 +1,372 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package files;
+
+import java.io.*;
+import java.nio.CharBuffer;
+import java.util.*;
+
+/**
+ * This splits a list of file paths or wildcards into individual entries, 
+ * reading the list incrementally from a {@code Readable} such as a Reader or 
+ * a CharBuffer. Only a small buffer of the input and the entry currently 
+ * being read are held in memory, so very long lists, such as large clipboard 
+ * pastes or manifest files, do not need to be loaded into a single String. 
+ * <p>
+ * 
+ * This supports the two formats used by this library: <p>
+ * 
+ * <ul>
+ * <li>{@link Mode#FILES FILES}, which is the format read by {@link 
+ * FilesExtended#getFilesFromString(String) getFilesFromString} and written by 
+ * {@link FilesExtended#getFileList(List) getFileList}. Anything before the 
+ * first quotation mark and after the last quotation mark is ignored, and the 
+ * paths are only split at a quotation mark followed by a comma, path 
+ * separator, or whitespace, and then any whitespace and an optional quotation 
+ * mark. If there are no quotation marks, then the entire list is one 
+ * path.</li>
+ * <li>{@link Mode#WILDCARDS WILDCARDS}, which is the format read by {@link 
+ * files.wildcard.FileWildcard#getWildcardsFromString(String) 
+ * getWildcardsFromString}. Entries are split at commas, spaces, and path 
+ * separators, unless they are inside quotation marks.</li>
+ * </ul>
+ * 
+ * Blank entries are skipped in both modes.
+ * @author Mosblinker
+ * @see FilesExtended#getFilesFromReader(Reader, ArrayList) 
+ */
+public class PathListTokenizer implements Closeable{
+    /**
+     * This is the size of the buffer used to read from the input.
+     */
+    private static final int BUFFER_SIZE = 8192;
+    /**
+     * This is the character used to quote entries.
+     */
+    private static final char QUOTE = '\"';
+    /**
+     * This is the format of a list being split.
+     */
+    public static enum Mode{
+        /**
+         * This is the format for lists of file paths, where paths are 
+         * separated by a quotation mark, a comma, path separator, or 
+         * whitespace, and then optional whitespace and a quotation mark.
+         */
+        FILES,
+        /**
+         * This is the format for lists of wildcards, where wildcards are 
+         * separated by commas, spaces, or path separators, and can be 
+         * surrounded by quotation marks.
+         */
+        WILDCARDS
+    }
+    /**
+     * The input to read from.
+     */
+    private final Readable source;
+    /**
+     * The format of the list.
+     */
+    private final Mode mode;
+    /**
+     * The buffer for the input.
+     */
+    private final CharBuffer buffer = CharBuffer.allocate(BUFFER_SIZE);
+    /**
+     * A character that was read but was pushed back, or -1 if none.
+     */
+    private int pushback = -1;
+    /**
+     * Whether the end of the input has been reached.
+     */
+    private boolean endOfInput = false;
+    /**
+     * The entry currently being read.
+     */
+    private final StringBuilder current = new StringBuilder();
+    /**
+     * When reading files, this is whether the first quotation mark has been 
+     * found.
+     */
+    private boolean quoted = false;
+    /**
+     * When reading files, this is the index of the last quotation mark in the 
+     * current entry, or -1 if there is none.
+     */
+    private int lastQuote = -1;
+    /**
+     * When reading files, this is whether the current entry is the first 
+     * entry in the list.
+     */
+    private boolean firstEntry = true;
+    /**
+     * When reading files, this is the previous entry if it was followed by a 
+     * separator that will only end the entry if there is another quotation 
+     * mark later in the list. Otherwise, this is null.
+     */
+    private String pending = null;
+    /**
+     * When reading files, this is whether the separator after the pending 
+     * entry ended with a quotation mark, in which case the quotation mark 
+     * after the pending entry is part of it if there are no other quotation 
+     * marks.
+     */
+    private boolean pendingQuote = false;
+    /**
+     * The entries that have been found but not returned yet.
+     */
+    private final Deque<String> ready = new ArrayDeque<>();
+    /**
+     * Whether the end of the list has been reached.
+     */
+    private boolean done = false;
+    /**
+     * This constructs a PathListTokenizer that reads the list from the given 
+     * input.
+     * @param source The input to read from (cannot be null).
+     * @param mode The format of the list (cannot be null).
+     */
+    public PathListTokenizer(Readable source, Mode mode){
+        this.source = Objects.requireNonNull(source);
+        this.mode = Objects.requireNonNull(mode);
+        buffer.flip();
+    }
+    /**
+     * This constructs a PathListTokenizer that reads the list from the given 
+     * String.
+     * @param list The String containing the list (cannot be null).
+     * @param mode The format of the list (cannot be null).
+     */
+    public PathListTokenizer(String list, Mode mode){
+        this(new StringReader(list),mode);
+    }
+    /**
+     * This returns the format of the list being split.
+     * @return The format of the list.
+     */
+    public Mode getMode(){
+        return mode;
+    }
+    /**
+     * This reads the next character from the input.
+     * @return The next character, or -1 if the end of the input was reached.
+     * @throws IOException If an I/O error occurs.
+     */
+    private int read() throws IOException{
+        if (pushback >= 0){     // If a character was pushed back
+            int c = pushback;
+            pushback = -1;
+            return c;
+        }
+        while (!buffer.hasRemaining()){ // While the buffer is empty
+            if (endOfInput)     // If the end of the input has been reached
+                return -1;
+            buffer.clear();
+            endOfInput = source.read(buffer) < 0;
+            buffer.flip();
+        }
+        return buffer.get();
+    }
+    /**
+     * This returns whether the given character separates entries in the 
+     * files format when it follows a quotation mark. This matches the 
+     * characters in {@link FilesExtended#PATH_SEPARATOR_REGEX}.
+     * @param c The character to check.
+     * @return Whether the character is a separator.
+     */
+    private static boolean isFileSeparator(int c){
+        return c == ',' || File.pathSeparator.indexOf(c) >= 0 || 
+                isRegexSpace(c);
+    }
+    /**
+     * This returns whether the given character is a whitespace character as 
+     * defined by regular expressions.
+     * @param c The character to check.
+     * @return Whether the character is whitespace.
+     */
+    private static boolean isRegexSpace(int c){
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+    /**
+     * This returns whether the given character separates entries in the 
+     * wildcards format.
+     * @param c The character to check.
+     * @return Whether the character is a separator.
+     */
+    private static boolean isWildcardSeparator(int c){
+        return c == ',' || c == ' ' || c == File.pathSeparatorChar;
+    }
+    /**
+     * This returns the next entry in the list.
+     * @return The next entry, or null if there are no more entries.
+     * @throws IOException If an I/O error occurs.
+     */
+    public String nextToken() throws IOException{
+        while (true){
+            while (!ready.isEmpty()){   // While there are entries to return
+                String token = ready.poll();
+                    // Blank entries are skipped. Wildcards have already been 
+                    // trimmed, so they only need to be checked for if they're 
+                if ((mode == Mode.FILES) ? !token.isBlank() : !token.isEmpty())
+                    return token;               // empty
+            }
+            if (done)       // If the end of the list has been reached
+                return null;
+            if (mode == Mode.FILES)
+                readFiles();
+            else
+                readWildcard();
+        }
+    }
+    /**
+     * This reads the next entry in the wildcards format.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void readWildcard() throws IOException{
+        current.setLength(0);
+        int c;
+        while ((c = read()) >= 0){
+            if (c == QUOTE){    // If this is the start of a quoted wildcard
+                    // Anything before the quotation mark is discarded
+                current.setLength(0);
+                while ((c = read()) >= 0 && c != QUOTE)
+                    current.append((char)c);
+                ready.add(current.toString().trim());
+                return;
+            }
+            else if (isWildcardSeparator(c)){   // If this is a separator
+                ready.add(current.toString().trim());
+                return;
+            }
+            current.append((char)c);
+        }
+        done = true;
+        ready.add(current.toString().trim());
+    }
+    /**
+     * This reads the list in the files format until at least one entry has 
+     * been found or the end of the list has been reached.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void readFiles() throws IOException{
+        int c;
+        while (ready.isEmpty()){
+            if ((c = read()) < 0){  // If the end of the input was reached
+                endFiles();
+                return;
+            }
+            if (!quoted){       // If the first quotation mark has not been found
+                if (c == QUOTE){
+                    quoted = true;
+                    current.setLength(0);
+                } else
+                    current.append((char)c);
+                continue;
+            }
+            if (c != QUOTE){    // If this is not a quotation mark
+                current.append((char)c);
+                continue;
+            }   // Any quotation mark means that the content of the list 
+                // continues at least up to here, so a pending entry is ended
+            if (pending != null){
+                ready.add(pending);
+                pending = null;
+            }
+            c = read();
+            if (isFileSeparator(c)){    // If this is a separator
+                    // Whether the separator is whitespace, which would be 
+                boolean space = isRegexSpace(c);    // trimmed at the end
+                    // This skips the whitespace after the separator
+                while (isRegexSpace(c = read()));
+                    // This gets the entry before the separator
+                String entry = endEntry(current.length());
+                    // If the separator ends with a quotation mark and will not 
+                if (c == QUOTE && !space)   // be trimmed off at the end
+                    ready.add(entry);
+                else{   // The separator only counts if there is another 
+                        // quotation mark later
+                    pending = entry;
+                        // If the separator ended with a quotation mark, then 
+                        // it is a part of the entry if it's the last one
+                    pendingQuote = c == QUOTE;
+                    if (!pendingQuote)
+                        pushback = c;
+                }
+            } else {    // The quotation mark is part of the entry
+                lastQuote = current.length();
+                current.append(QUOTE);
+                pushback = c;
+            }
+        }
+    }
+    /**
+     * This finishes reading the list in the files format once the end of the 
+     * input has been reached. Anything after the last quotation mark is 
+     * discarded, and trailing whitespace is removed from the last entry.
+     */
+    private void endFiles(){
+        done = true;
+        if (!quoted)        // If there were no quotation marks
+            ready.add(current.toString().trim());
+        else if (pending != null)   // If the last separator was at the last 
+            ready.add(stripTrailing((pendingQuote) ? pending + QUOTE : 
+                    pending));      // quotation mark
+            // If there is a quotation mark in the current entry
+        else if (lastQuote >= 0)
+            ready.add(stripTrailing(endEntry(lastQuote)));
+            // If there was only one quotation mark, then the list continues to 
+        else if (firstEntry)    // the end
+            ready.add(stripTrailing(endEntry(current.length())));
+        pending = null;
+    }
+    /**
+     * This ends the current entry at the given index and starts a new entry.
+     * @param end The index to end the entry at.
+     * @return The entry.
+     */
+    private String endEntry(int end){
+        String entry = current.substring(0, end);
+        if (firstEntry)     // If this is the first entry, then the leading 
+            entry = stripLeading(entry);    // whitespace is trimmed
+        firstEntry = false;
+        current.setLength(0);
+        lastQuote = -1;
+        return entry;
+    }
+    /**
+     * This removes the leading characters that {@link String#trim() trim} 
+     * would remove.
+     * @param str The String to strip.
+     * @return The stripped String.
+     */
+    private static String stripLeading(String str){
+        int start = 0;
+        while (start < str.length() && str.charAt(start) <= ' ')
+            start++;
+        return str.substring(start);
+    }
+    /**
+     * This removes the trailing characters that {@link String#trim() trim} 
+     * would remove.
+     * @param str The String to strip.
+     * @return The stripped String.
+     */
+    private static String stripTrailing(String str){
+        int end = str.length();
+        while (end > 0 && str.charAt(end-1) <= ' ')
+            end--;
+        return str.substring(0, end);
+    }
+    /**
+     * This closes the input if it can be closed.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        if (source instanceof Closeable)
+            ((Closeable)source).close();
+    }
+}
@@ -0,0 +1,454 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package files;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.IntUnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This plans and performs the renaming of a sequence of numbered files, such
+ * as the files produced by {@link FilesExtended#getNextAvailableFilePath(File)
+ * getNextAvailableFilePath}. The folder containing the files is listed once
+ * when this is constructed, and the file numbers are parsed using the cached
+ * file number Pattern. The renames are then ordered so that no file is
+ * renamed onto a file that has not been moved out of the way yet. The renames
+ * form chains, where each file is moved onto a name that has already been
+ * freed, and cycles, where one of the files is first moved to a temporary
+ * name. Since the chains do not share any file names, they can be performed
+ * in parallel. Each rename is retried according to a {@link RetryPolicy}.
+ * @author Mosblinker
+ * @see FilesExtended#renumberFiles(File, java.util.function.IntUnaryOperator,
+ * int)
+ */
+class RenumberPlan {
+    /**
+     * The file used as the template for the file names in the sequence.
+     */
+    private final File file;
+    /**
+     * The sections of the template file path before and after the file number.
+     */
+    private final String[] sections;
+    /**
+     * The left bracket for the file number.
+     */
+    private final String leftBracket;
+    /**
+     * The right bracket for the file number.
+     */
+    private final String rightBracket;
+    /**
+     * The files that were in the folder when it was listed.
+     */
+    private final Set<File> siblings;
+    /**
+     * This maps the files in the sequence to their file numbers, in order of
+     * their file numbers.
+     */
+    private final Map<File, Integer> numbers;
+    /**
+     * The chains of renames to perform. Each chain must be performed in order.
+     */
+    private final List<List<Step>> chains = new ArrayList<>();
+    /**
+     * This constructs a RenumberPlan for the numbered files in the same folder
+     * as, and with the same name as, the given file.
+     * @param file The file used as the template for the file names.
+     * @param leftBracket The left bracket for the file number.
+     * @param rightBracket The right bracket for the file number.
+     * @throws IllegalArgumentException If the file name is blank.
+     * @throws IOException If the folder could not be listed.
+     */
+    RenumberPlan(File file, String leftBracket, String rightBracket)
+            throws IOException{
+        if (file.getName().isBlank())    // If the file name is blank
+            throw new IllegalArgumentException("File name cannot be blank");
+        this.file = file;
+        this.leftBracket = leftBracket;
+        this.rightBracket = rightBracket;
+            // The matcher used to find the file number
+        Matcher matcher = FilesExtended.getFileNumberMatcher(file,leftBracket,
+                rightBracket);
+        matcher.find();
+        sections = FilesExtended.splitAtFileNumber(file, matcher);
+        siblings = FilesExtended.listSiblings(file);
+        if (siblings == null)   // If the folder could not be listed
+            throw new IOException("Unable to list the folder containing \"" +
+                    file + "\"");
+            // The Pattern used to check the file numbers
+        Pattern pattern = FilesExtended.getFileNumberPattern(leftBracket,
+                rightBracket);
+            // This gets the files in the sequence with their numbers
+        List<Map.Entry<File, Integer>> entries = new ArrayList<>();
+        for (File temp : siblings){ // Go through the files in the folder
+            String name = temp.toString();
+                // If the file path does not fit around a file number
+            if (name.length() <= sections[0].length()+sections[1].length() ||
+                    !name.startsWith(sections[0]) ||
+                    !name.endsWith(sections[1]))
+                continue;
+                // Gets the part of the file path where the number would be
+            String value = name.substring(sections[0].length(),
+                    name.length()-sections[1].length());
+            if (!pattern.matcher(value).matches())
+                continue;
+            try{
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(temp,
+                        Integer.parseInt(value.substring(leftBracket.length(),
+                                value.length()-rightBracket.length()))));
+            }
+            catch(NumberFormatException ex){}   // The number is too large
+        }
+        entries.sort(Map.Entry.<File,Integer>comparingByValue().thenComparing(
+                Map.Entry.comparingByKey()));
+        numbers = new LinkedHashMap<>(entries.size()*4/3+1);
+        for (Map.Entry<File, Integer> entry : entries)
+            numbers.put(entry.getKey(), entry.getValue());
+    }
+    /**
+     * This returns a map of the files in the sequence to their current file
+     * numbers, in order of their file numbers.
+     * @return An unmodifiable map of the files to their file numbers.
+     */
+    Map<File, Integer> getFileNumbers(){
+        return Collections.unmodifiableMap(numbers);
+    }
+    /**
+     * This plans the renames that give each file in the sequence the number
+     * returned by the given function for its current number. A number of 0
+     * will remove the number if it is at the end of the file name. This
+     * replaces any previously planned renames.
+     * @param numbering The function that returns the new file number for each
+     * current file number.
+     * @throws IllegalArgumentException If the function returns a negative
+     * number, or if two files would be given the same name.
+     * @throws FileAlreadyExistsException If a file would be renamed onto a
+     * file that is not in the sequence or is not being renamed.
+     */
+    void plan(IntUnaryOperator numbering) throws FileAlreadyExistsException{
+        chains.clear();
+            // This maps the files to their new names
+        Map<File, File> moves = new LinkedHashMap<>();
+            // This maps the new names to the files being renamed to them
+        Map<File, File> targets = new HashMap<>();
+        for (Map.Entry<File, Integer> entry : numbers.entrySet()){
+            int num = numbering.applyAsInt(entry.getValue());
+            if (num < 0)    // If the number is negative
+                throw new IllegalArgumentException("Number cannot be "
+                        + "negative (" + num + " < 0)");
+            File target = new File(FilesExtended.changeFileNumber(file,
+                    sections,leftBracket,rightBracket,num));
+                // If another file is already being given this name
+            if (targets.put(target, entry.getKey()) != null)
+                throw new IllegalArgumentException("More than one file would "
+                        + "be renamed to \"" + target + "\"");
+            if (!target.equals(entry.getKey()))
+                moves.put(entry.getKey(), target);
+        }
+        for (Map.Entry<File, File> entry : moves.entrySet()){
+            File target = entry.getValue();
+                // If the target exists and is not being moved out of the way
+            if (!moves.containsKey(target) && siblings.contains(target))
+                throw new FileAlreadyExistsException(target.toString(),
+                        entry.getKey().toString(),
+                        "Target file, \"" + target + "\", already exists");
+        }
+            // The files that have been added to a chain
+        Set<File> planned = new HashSet<>();
+            // The temporary names that have been used
+        Set<File> temps = new HashSet<>();
+        for (File source : moves.keySet()){
+                // Gets the file that is being renamed to this file's name
+            File previous = targets.get(source);
+                // If this file is renamed onto, then it is not the start of a
+                // chain
+            if (previous != null && moves.containsKey(previous))
+                continue;
+                // The renames in this chain, starting from the free name
+            List<Step> chain = new ArrayList<>();
+            for (File temp = source; moves.containsKey(temp);
+                    temp = moves.get(temp)){
+                chain.add(new Step(temp, moves.get(temp), temp));
+                planned.add(temp);
+            }
+            Collections.reverse(chain);
+            chains.add(chain);
+        }
+        for (File source : moves.keySet()){ // The remaining files are in cycles
+            if (planned.contains(source))   // If already in a chain
+                continue;
+            File temp = getTemporaryFile(source, temps);
+            List<Step> chain = new ArrayList<>();
+            chain.add(new Step(source, temp, null));
+            planned.add(source);
+                // This gets the renames in the cycle, starting from the file
+                // that is being renamed onto the first file
+            List<Step> cycle = new ArrayList<>();
+            for (File next = moves.get(source); !next.equals(source);
+                    next = moves.get(next)){
+                cycle.add(new Step(next, moves.get(next), next));
+                planned.add(next);
+            }
+            Collections.reverse(cycle);
+            chain.addAll(cycle);
+            chain.add(new Step(temp, moves.get(source), source));
+            chains.add(chain);
+        }
+    }
+    /**
+     * This returns a temporary name for the given file that does not exist
+     * and has not already been used.
+     * @param source The file to get a temporary name for.
+     * @param temps The set of temporary names that have already been used.
+     * @return The temporary name.
+     */
+    private File getTemporaryFile(File source, Set<File> temps){
+        File temp;      // The temporary name
+        int count = 0;  // The number to add to the temporary name
+        do{
+            temp = new File(source.getPath()+".renumber"+(count++)+".tmp");
+        }
+        while (siblings.contains(temp) || temps.contains(temp) ||
+                temp.exists());
+        temps.add(temp);
+        return temp;
+    }
+    /**
+     * This returns the number of chains of renames that have been planned.
+     * @return The number of chains of renames.
+     */
+    int getChainCount(){
+        return chains.size();
+    }
+    /**
+     * This performs the planned renames, running up to the given number of
+     * chains at once. Each rename is retried according to the given 
+     * RetryPolicy. If a rename fails, then the rest of its chain is skipped, 
+     * but the other chains are still performed. If a rename in a cycle fails, 
+     * then the renames already performed in the cycle are undone, so that no 
+     * file is left with its temporary name.
+     * @param parallelism The maximum number of chains to run at once.
+     * @param policy The RetryPolicy used to retry each rename (cannot be 
+     * null).
+     * @return A map of the files that were renamed to their new names, in the
+     * order they were planned.
+     * @throws IllegalArgumentException If the parallelism is less than or
+     * equal to zero.
+     * @throws IOException If any of the renames failed. Any other failed
+     * renames, and any renames that could not be undone, are added as 
+     * suppressed exceptions.
+     */
+    Map<File, File> execute(int parallelism, RetryPolicy policy) 
+            throws IOException{
+        Objects.requireNonNull(policy);
+        if (parallelism <= 0)   // If the parallelism is not positive
+            throw new IllegalArgumentException("Parallelism must be "
+                    + "positive (" + parallelism + " <= 0)");
+            // This maps the files that were renamed to their new names
+        Map<File, File> renamed = new ConcurrentHashMap<>();
+            // The exceptions thrown by the chains
+        Queue<IOException> failures = new ConcurrentLinkedQueue<>();
+            // If there is only one chain or only one thread should be used
+        if (parallelism == 1 || chains.size() <= 1){
+            for (List<Step> chain : chains)
+                run(chain, policy, renamed, failures);
+        } else {
+            ExecutorService pool = Executors.newFixedThreadPool(Math.min(
+                    parallelism, chains.size()));
+            try{
+                List<Future<?>> futures = new ArrayList<>(chains.size());
+                for (List<Step> chain : chains)
+                    futures.add(pool.submit(() -> 
+                            run(chain,policy,renamed,failures)));
+                for (Future<?> future : futures){
+                    try{
+                        future.get();
+                    }
+                    catch (ExecutionException ex){
+                        failures.add(new IOException(ex.getCause()));
+                    }
+                }
+            }
+            catch (InterruptedException ex){
+                Thread.currentThread().interrupt();
+                failures.add(new InterruptedIOException(
+                        "Interrupted while renaming files"));
+            }
+            finally{
+                pool.shutdownNow();
+            }
+        }
+            // This gets the renamed files in the order they were planned
+        Map<File, File> result = new LinkedHashMap<>();
+        for (File source : numbers.keySet()){
+            File target = renamed.get(source);
+            if (target != null)
+                result.put(source, target);
+        }
+        IOException exc = failures.poll();
+        if (exc != null){   // If any of the renames failed
+            for (IOException temp = failures.poll(); temp != null;
+                    temp = failures.poll())
+                exc.addSuppressed(temp);
+            throw exc;
+        }
+        return result;
+    }
+    /**
+     * This performs the planned renames, running up to the given number of
+     * chains at once. Each rename is retried using the {@link 
+     * RetryPolicy#DEFAULT default RetryPolicy}.
+     * @param parallelism The maximum number of chains to run at once.
+     * @return A map of the files that were renamed to their new names, in the
+     * order they were planned.
+     * @throws IllegalArgumentException If the parallelism is less than or
+     * equal to zero.
+     * @throws IOException If any of the renames failed.
+     * @see #execute(int, RetryPolicy) 
+     */
+    Map<File, File> execute(int parallelism) throws IOException{
+        return execute(parallelism,RetryPolicy.DEFAULT);
+    }
+    /**
+     * This performs the renames in the given chain in order, stopping at the
+     * first rename that fails. If the chain is a cycle, then the renames that 
+     * were performed before the failure are undone in reverse order.
+     * @param chain The chain of renames.
+     * @param policy The RetryPolicy used to retry each rename.
+     * @param renamed The map to add the files that were renamed to.
+     * @param failures The queue to add the exception to if a rename fails.
+     */
+    private static void run(List<Step> chain, RetryPolicy policy, 
+            Map<File, File> renamed, Queue<IOException> failures){
+        for (int i = 0; i < chain.size(); i++){
+            Step step = chain.get(i);
+            try{
+                move(step.source, step.target, policy);
+            }
+            catch (IOException ex){
+                    // If this is a cycle that has moved a file to its 
+                    // temporary name
+                if (i > 0 && chain.get(0).origin == null)
+                    undo(chain.subList(0, i), policy, renamed, ex);
+                failures.add(ex);
+                return;
+            }
+            if (step.origin != null)    // If this is not a temporary rename
+                renamed.put(step.origin, step.target);
+        }
+    }
+    /**
+     * This undoes the given renames in reverse order, stopping at the first 
+     * rename that cannot be undone.
+     * @param steps The renames that were performed.
+     * @param policy The RetryPolicy used to retry each rename.
+     * @param renamed The map to remove the files that were moved back from.
+     * @param exc The exception that caused the renames to be undone, which 
+     * any exception thrown while undoing them is added to.
+     */
+    private static void undo(List<Step> steps, RetryPolicy policy, 
+            Map<File, File> renamed, IOException exc){
+        for (int i = steps.size()-1; i >= 0; i--){
+            Step step = steps.get(i);
+            try{
+                move(step.target, step.source, policy);
+            }
+            catch (IOException ex){
+                exc.addSuppressed(ex);
+                return;
+            }
+            if (step.origin != null)    // If this is not a temporary rename
+                renamed.remove(step.origin);
+        }
+    }
+    /**
+     * This moves the given source file to the given target, retrying 
+     * according to the given RetryPolicy if the move fails.
+     * @param source The file to move.
+     * @param target The path to move the file to.
+     * @param policy The RetryPolicy used to retry the move.
+     * @throws IOException If the file could not be moved. This is the last 
+     * exception thrown while moving the file.
+     * @see #move(File, File) 
+     */
+    private static void move(File source, File target, RetryPolicy policy) 
+            throws IOException{
+        RetryPolicy.Outcome<Boolean> outcome = policy.run(() -> {
+            move(source, target);
+            return true;
+        });
+        if (outcome.isSuccessful())     // If the file was moved
+            return;
+        if (outcome.getException() != null)
+            throw outcome.getException();
+        throw new IOException("Unable to rename \"" + source + "\" to \"" + 
+                target + "\"");
+    }
+    /**
+     * This moves the given source file to the given target, atomically if
+     * possible. This will not replace an existing file. Both files are locked 
+     * using the same locks as {@link FilesExtended#rename(File, File) 
+     * FilesExtended.rename} while the target is checked and the file is 
+     * moved, so that a file created at the target by another rename or 
+     * reservation in this JVM is not replaced.
+     * @param source The file to move.
+     * @param target The path to move the file to.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void move(File source, File target) throws IOException{
+        int[] locks = FilesExtended.lockFiles(source, target);
+        try{
+            Path path = target.toPath();
+            if (Files.exists(path, LinkOption.NOFOLLOW_LINKS))
+                throw new FileAlreadyExistsException(target.toString(),
+                        source.toString(),
+                        "Target file, \"" + target + "\", already exists");
+            try{
+                Files.move(source.toPath(), path, 
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (AtomicMoveNotSupportedException ex){
+                Files.move(source.toPath(), path);
+            }
+        }
+        finally{
+            FilesExtended.unlockFiles(locks);
+        }
+    }
+    /**
+     * This is a single rename in a chain.
+     */
+    private static class Step{
+        /**
+         * The file to rename.
+         */
+        final File source;
+        /**
+         * The name to rename the file to.
+         */
+        final File target;
+        /**
+         * The file in the sequence that this rename moves, or null if this
+         * moves a file to its temporary name.
+         */
+        final File origin;
+        /**
+         * This constructs a Step that renames the given file.
+         * @param source The file to rename.
+         * @param target The name to rename the file to.
+         * @param origin The file in the sequence being moved, or null.
+         */
+        Step(File source, File target, File origin){
+            this.source = source;
+            this.target = target;
+            this.origin = origin;
+        }
+    }
+}
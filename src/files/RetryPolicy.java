@@ -0,0 +1,351 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package files;
+
+import java.io.*;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * This controls how an operation on a file is retried when it fails, such as
+ * when a file is temporarily locked by another process. Between attempts,
+ * this waits for a delay that starts at the initial delay and doubles after
+ * each attempt up to the maximum delay, with a random amount of jitter
+ * subtracted so that competing threads do not retry in lockstep. The
+ * operation is retried until it succeeds, the maximum number of attempts is
+ * reached, the deadline passes, or it fails with an exception that is not
+ * retryable. By default, exceptions that indicate that retrying cannot help,
+ * such as a file not existing or already existing, are not retryable. <p>
+ *
+ * RetryPolicies are immutable, and so can be shared between threads.
+ * @author Mosblinker
+ * @see FilesExtended#rename(File, File, RetryPolicy)
+ * @see FilesExtended#delete(File, RetryPolicy)
+ */
+public class RetryPolicy {
+    /**
+     * This is the default RetryPolicy used by the methods of {@link
+     * FilesExtended} that do not take a RetryPolicy. This makes up to {@link
+     * FilesExtended#MAX_LOOP_AMOUNT} attempts, waiting from 1 millisecond up
+     * to 64 milliseconds between attempts with half of the delay jittered, and
+     * gives up after 5 seconds.
+     */
+    public static final RetryPolicy DEFAULT = new RetryPolicy(
+            FilesExtended.MAX_LOOP_AMOUNT, Duration.ofMillis(1),
+            Duration.ofMillis(64), Duration.ofSeconds(5), 0.5);
+    /**
+     * This is a RetryPolicy that only makes one attempt.
+     */
+    public static final RetryPolicy NO_RETRY = new RetryPolicy(1,
+            Duration.ZERO, Duration.ZERO, Duration.ZERO, 0);
+    /**
+     * The maximum number of attempts to make.
+     */
+    private final int maxAttempts;
+    /**
+     * The delay before the second attempt, in nanoseconds.
+     */
+    private final long initialDelay;
+    /**
+     * The maximum delay between attempts, in nanoseconds.
+     */
+    private final long maxDelay;
+    /**
+     * The maximum total time to spend retrying, in nanoseconds, or zero if
+     * there is no deadline.
+     */
+    private final long deadline;
+    /**
+     * The fraction of each delay that is randomized.
+     */
+    private final double jitter;
+    /**
+     * The predicate used to check whether an exception is retryable, or null
+     * if the default classification is used.
+     */
+    private final Predicate<? super IOException> retryable;
+    /**
+     * This constructs a RetryPolicy with the given settings that uses the
+     * given predicate to check whether an exception is retryable.
+     * @param maxAttempts The maximum number of attempts to make.
+     * @param initialDelay The delay before the second attempt.
+     * @param maxDelay The maximum delay between attempts.
+     * @param deadline The maximum total time to spend retrying, or zero if
+     * there is no deadline.
+     * @param jitter The fraction of each delay that is randomized, between 0
+     * and 1 inclusive.
+     * @param retryable The predicate used to check whether an exception is
+     * retryable, or null to use the default classification.
+     * @throws IllegalArgumentException If the maximum number of attempts is
+     * less than or equal to zero, if any of the durations are negative, if
+     * the maximum delay is less than the initial delay, or if the jitter is
+     * not between 0 and 1.
+     * @see #isRetryable(IOException)
+     */
+    public RetryPolicy(int maxAttempts, Duration initialDelay,
+            Duration maxDelay, Duration deadline, double jitter,
+            Predicate<? super IOException> retryable){
+        if (maxAttempts <= 0)   // If there are no attempts
+            throw new IllegalArgumentException("Maximum attempts must be "
+                    + "positive (" + maxAttempts + " <= 0)");
+        if (initialDelay.isNegative() || maxDelay.isNegative() ||
+                deadline.isNegative())
+            throw new IllegalArgumentException("Durations cannot be negative");
+        if (maxDelay.compareTo(initialDelay) < 0)
+            throw new IllegalArgumentException("Maximum delay cannot be less "
+                    + "than the initial delay (" + maxDelay + " < " +
+                    initialDelay + ")");
+        if (!(jitter >= 0 && jitter <= 1))  // If the jitter is out of range
+            throw new IllegalArgumentException("Jitter must be between 0 and "
+                    + "1 (" + jitter + ")");
+        this.maxAttempts = maxAttempts;
+        this.initialDelay = initialDelay.toNanos();
+        this.maxDelay = maxDelay.toNanos();
+        this.deadline = deadline.toNanos();
+        this.jitter = jitter;
+        this.retryable = retryable;
+    }
+    /**
+     * This constructs a RetryPolicy with the given settings that uses the
+     * default classification of retryable exceptions.
+     * @param maxAttempts The maximum number of attempts to make.
+     * @param initialDelay The delay before the second attempt.
+     * @param maxDelay The maximum delay between attempts.
+     * @param deadline The maximum total time to spend retrying, or zero if
+     * there is no deadline.
+     * @param jitter The fraction of each delay that is randomized, between 0
+     * and 1 inclusive.
+     * @throws IllegalArgumentException If the maximum number of attempts is
+     * less than or equal to zero, if any of the durations are negative, if
+     * the maximum delay is less than the initial delay, or if the jitter is
+     * not between 0 and 1.
+     */
+    public RetryPolicy(int maxAttempts, Duration initialDelay,
+            Duration maxDelay, Duration deadline, double jitter){
+        this(maxAttempts,initialDelay,maxDelay,deadline,jitter,null);
+    }
+    /**
+     * This returns the maximum number of attempts this makes.
+     * @return The maximum number of attempts.
+     */
+    public int getMaximumAttempts(){
+        return maxAttempts;
+    }
+    /**
+     * This returns the delay before the second attempt.
+     * @return The initial delay.
+     */
+    public Duration getInitialDelay(){
+        return Duration.ofNanos(initialDelay);
+    }
+    /**
+     * This returns the maximum delay between attempts.
+     * @return The maximum delay.
+     */
+    public Duration getMaximumDelay(){
+        return Duration.ofNanos(maxDelay);
+    }
+    /**
+     * This returns the maximum total time this spends retrying.
+     * @return The deadline, or zero if there is no deadline.
+     */
+    public Duration getDeadline(){
+        return Duration.ofNanos(deadline);
+    }
+    /**
+     * This returns the fraction of each delay that is randomized.
+     * @return The jitter, between 0 and 1.
+     */
+    public double getJitter(){
+        return jitter;
+    }
+    /**
+     * This returns whether the given exception is retryable. If this was
+     * constructed with a predicate, then the predicate is used. Otherwise,
+     * exceptions that indicate that a file does not exist, already exists, is
+     * not a directory, or is a non-empty directory, as well as an atomic move
+     * not being supported, are not retryable, and all other exceptions are.
+     * @param ex The exception to check.
+     * @return Whether the operation should be retried after the exception.
+     */
+    public boolean isRetryable(IOException ex){
+        if (retryable != null)
+            return retryable.test(ex);
+        return !(ex instanceof FileNotFoundException ||
+                ex instanceof NoSuchFileException ||
+                ex instanceof FileAlreadyExistsException ||
+                ex instanceof NotDirectoryException ||
+                ex instanceof DirectoryNotEmptyException ||
+                ex instanceof AtomicMoveNotSupportedException);
+    }
+    /**
+     * This returns the delay to wait for after the given number of attempts,
+     * including jitter.
+     * @param attempts The number of attempts that have been made.
+     * @return The delay in nanoseconds.
+     */
+    protected long getDelay(int attempts){
+            // Double the initial delay for each attempt after the first,
+            // stopping at the maximum delay
+        long delay = initialDelay;
+        for (int i = 1; i < attempts && delay < maxDelay; i++)
+            delay *= 2;
+        delay = Math.min(delay, maxDelay);
+        if (jitter > 0 && delay > 0)   // If the delay is to be randomized
+            delay -= (long)(delay * jitter *
+                    ThreadLocalRandom.current().nextDouble());
+        return delay;
+    }
+    /**
+     * This runs the given attempt until it succeeds or this stops retrying. An
+     * attempt succeeds when it returns a non-null result, and is retried when
+     * it returns null or throws a retryable exception. If the current thread
+     * is interrupted while waiting, then this stops retrying and the thread's
+     * interrupt status is restored.
+     * @param <T> The type of result returned by the attempt.
+     * @param attempt The attempt to run (cannot be null).
+     * @return The outcome of running the attempt.
+     */
+    public <T> Outcome<T> run(Attempt<T> attempt){
+        Objects.requireNonNull(attempt);
+        long start = System.nanoTime(); // The time this started
+        long waited = 0;                // The time spent waiting
+        IOException exc = null;         // The last exception thrown
+        for (int attempts = 1; ; attempts++){
+            try{
+                T result = attempt.attempt();
+                if (result != null)     // If the attempt succeeded
+                    return new Outcome<>(result,attempts,waited,exc);
+            }
+            catch (IOException ex){
+                exc = ex;
+                if (!isRetryable(ex))   // If the exception is fatal
+                    return new Outcome<>(null,attempts,waited,exc);
+            }
+            if (attempts >= maxAttempts)// If this has run out of attempts
+                return new Outcome<>(null,attempts,waited,exc);
+            long delay = getDelay(attempts);
+                // If waiting would go past the deadline
+            if (deadline > 0 && System.nanoTime()-start+delay > deadline)
+                return new Outcome<>(null,attempts,waited,exc);
+            if (delay > 0){             // If this should wait
+                try{
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                }
+                catch (InterruptedException ex){
+                    Thread.currentThread().interrupt();
+                    InterruptedIOException temp = new InterruptedIOException(
+                            "Interrupted while waiting to retry");
+                    if (exc != null)
+                        temp.addSuppressed(exc);
+                    return new Outcome<>(null,attempts,waited,temp);
+                }
+                waited += delay;
+            }
+        }
+    }
+    /**
+     * This is a single attempt of an operation that can be retried by a
+     * {@link RetryPolicy}.
+     * @param <T> The type of result returned by the attempt.
+     */
+    @FunctionalInterface
+    public interface Attempt<T>{
+        /**
+         * This makes an attempt at the operation.
+         * @return The result of the operation, or null if the operation did
+         * not succeed and should be retried.
+         * @throws IOException If the attempt failed.
+         */
+        public T attempt() throws IOException;
+    }
+    /**
+     * This reports the outcome of running an operation with a {@link
+     * RetryPolicy}, including how many attempts were made and how long was
+     * spent waiting between them.
+     * @param <T> The type of result returned by the operation.
+     */
+    public static class Outcome<T>{
+        /**
+         * The result of the operation, or null if it did not succeed.
+         */
+        private final T result;
+        /**
+         * The number of attempts that were made.
+         */
+        private final int attempts;
+        /**
+         * The time spent waiting between attempts, in nanoseconds.
+         */
+        private final long waited;
+        /**
+         * The last exception thrown, or null.
+         */
+        private final IOException exception;
+        /**
+         * This constructs an Outcome with the given values.
+         * @param result The result of the operation, or null.
+         * @param attempts The number of attempts that were made.
+         * @param waited The time spent waiting between attempts, in
+         * nanoseconds.
+         * @param exception The last exception thrown, or null.
+         */
+        Outcome(T result, int attempts, long waited, IOException exception){
+            this.result = result;
+            this.attempts = attempts;
+            this.waited = waited;
+            this.exception = exception;
+        }
+        /**
+         * This returns whether the operation succeeded.
+         * @return Whether the operation succeeded.
+         */
+        public boolean isSuccessful(){
+            return result != null;
+        }
+        /**
+         * This returns the result of the operation.
+         * @return The result, or null if the operation did not succeed.
+         */
+        public T getResult(){
+            return result;
+        }
+        /**
+         * This returns the number of attempts that were made.
+         * @return The number of attempts.
+         */
+        public int getAttempts(){
+            return attempts;
+        }
+        /**
+         * This returns the total amount of time spent waiting between
+         * attempts.
+         * @return The time spent waiting.
+         */
+        public Duration getWaitTime(){
+            return Duration.ofNanos(waited);
+        }
+        /**
+         * This returns the last exception thrown by the operation. If the
+         * operation succeeded, then this is the exception thrown by the
+         * attempt before the successful one, if any. If the thread was
+         * interrupted while waiting, then this is an {@code
+         * InterruptedIOException}.
+         * @return The last exception thrown, or null.
+         */
+        public IOException getException(){
+            return exception;
+        }
+        @Override
+        public String toString(){
+            return getClass().getName()+"[result="+result+",attempts="+attempts+
+                    ",waitTime="+getWaitTime()+",exception="+exception+"]";
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Interface.java to edit this template
+ */
+package files.filters;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * This is a FileFilter that can decide whether to accept a file using the
+ * file's attributes that have already been read. Traversals such as {@link
+ * files.walk.FileTreeIterator FileTreeIterator} read the attributes of each
+ * file once and pass them to filters that implement this, rather than having
+ * each filter query the file system for whether the file is a directory, how
+ * large it is, and so on. <p>
+ *
+ * When used as a regular {@code java.io.FileFilter}, this will read the
+ * attributes of the file itself before checking them, unless this does not 
+ * {@link #requiresAttributes() require} them. <p>
+ *
+ * Each AttributeFileFilter also reports its {@link #getCost() cost}, which is 
+ * used by the filters created by {@link FileFilters} to decide which filters 
+ * to check first.
+ * @author Mosblinker
+ */
+public interface AttributeFileFilter extends java.io.FileFilter{
+    /**
+     * This returns whether the file at the given path should be accepted,
+     * using the given attributes of the file.
+     * @param path The path of the file to check.
+     * @param attrs The attributes of the file. This can only be null if this 
+     * filter does not {@link #requiresAttributes() require} the attributes.
+     * @return Whether the file should be accepted.
+     */
+    public boolean accept(Path path, BasicFileAttributes attrs);
+    /**
+     * This returns how expensive it is for this filter to check a file. By 
+     * default, this returns {@link FilterCost#ATTRIBUTE ATTRIBUTE}.
+     * @return The cost of this filter.
+     */
+    public default FilterCost getCost(){
+        return FilterCost.ATTRIBUTE;
+    }
+    /**
+     * This returns whether the attributes of a file must be read before they 
+     * are given to this filter. If this returns false, then {@link 
+     * #accept(Path, BasicFileAttributes) accept} can be given null for the 
+     * attributes, and will either not use them or will read them itself if 
+     * it needs them. By default, this returns true unless this filter only 
+     * looks at the names of files.
+     * @return Whether this filter needs to be given the attributes of files.
+     * @see #getCost() 
+     */
+    public default boolean requiresAttributes(){
+        return getCost() != FilterCost.NAME_ONLY;
+    }
+    /**
+     * {@inheritDoc } This reads the attributes of the file, following symbolic
+     * links, and then calls {@link #accept(Path, BasicFileAttributes)
+     * accept(Path, BasicFileAttributes)}. If the attributes cannot be read,
+     * then the file is not accepted. If this does not {@link 
+     * #requiresAttributes() require} the attributes, then they are not read.
+     * @param pathname {@inheritDoc }
+     * @return {@inheritDoc }
+     */
+    @Override
+    public default boolean accept(File pathname){
+        if (pathname == null)   // If the pathname is null
+            return false;
+        try{
+            Path path = pathname.toPath();
+            if (!requiresAttributes())  // If the attributes are not needed
+                return accept(path,null);
+            return accept(path,Files.readAttributes(path,
+                    BasicFileAttributes.class));
+        }   // If the file does not exist or cannot be read
+        catch (IOException | InvalidPathException | SecurityException ex){
+            return false;
+        }
+    }
+}
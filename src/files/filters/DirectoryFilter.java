@@ -7,6 +7,8 @@ package files.filters;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 
 /**
  * This is a FileFilter that, by default, only accepts directories. This can be
@@ -16,7 +18,7 @@ import java.io.FileFilter;
  * being checked.
  * @author Milo Steier
  */
-public class DirectoryFilter implements FileFilter{
+public class DirectoryFilter implements AttributeFileFilter{
     /**
      * This is an optional additional FileFilter that can be used to include 
      * non-directories.
@@ -62,4 +64,25 @@ public class DirectoryFilter implements FileFilter{
         return pathname != null && (pathname.isDirectory() || (filter != null 
                 && filter.accept(pathname)));
     }
+    /**
+     * {@inheritDoc } If the attributes denote a directory, then this will 
+     * return true. Otherwise, this will return true if there is an additional 
+     * FileFilter and it accepts the path. If the additional FileFilter is an 
+     * {@code AttributeFileFilter}, then it will be given the attributes as 
+     * well.
+     * @param path {@inheritDoc }
+     * @param attrs {@inheritDoc }
+     * @return {@inheritDoc }
+     * @see #getNonDirectoryFileFilter() 
+     */
+    @Override
+    public boolean accept(Path path, BasicFileAttributes attrs) {
+        if (attrs.isDirectory())    // If the path is a directory
+            return true;
+        else if (filter == null)    // If only directories are accepted
+            return false;
+        else if (filter instanceof AttributeFileFilter)
+            return ((AttributeFileFilter)filter).accept(path, attrs);
+        return filter.accept(path.toFile());
+    }
 }
@@ -6,6 +6,8 @@
 package files.filters;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Objects;
 import javax.swing.JFileChooser;
 
@@ -14,7 +16,7 @@ import javax.swing.JFileChooser;
  * given JFileChooser.
  * @author Milo Steier
  */
-public class FileChooserFileFilter implements java.io.FileFilter{
+public class FileChooserFileFilter implements AttributeFileFilter{
     /**
      * The JFileChooser to use to determine if a file will be accepted.
      */
@@ -67,4 +69,32 @@ public class FileChooserFileFilter implements java.io.FileFilter{
             return false;
         return true;
     }
+    /**
+     * This checks to see if the given path represents a file that can be 
+     * selected in the JFileChooser, using the given attributes to determine 
+     * whether it is hidden, a directory, or a normal file. The JFileChooser's 
+     * own file filter is still given the path as a {@code File}.
+     * @param path {@inheritDoc }
+     * @param attrs {@inheritDoc }
+     * @return {@inheritDoc }
+     * @see #accept(java.io.File) 
+     * @see HiddenFileFilter#isHidden(Path, BasicFileAttributes) 
+     */
+    @Override
+    public boolean accept(Path path, BasicFileAttributes attrs) {
+            // If the file chooser does not display the path
+        if (!fc.accept(path.toFile()))
+            return false;
+            // If file hiding is enabled and the path is hidden
+        else if (fc.isFileHidingEnabled() && 
+                HiddenFileFilter.isHidden(path, attrs))
+            return false;
+            // If directories cannot be selected and the path is a directory
+        else if (!fc.isDirectorySelectionEnabled() && attrs.isDirectory())
+            return false;
+            // If files cannot be selected and the path is a normal file
+        else if (!fc.isFileSelectionEnabled() && attrs.isRegularFile())
+            return false;
+        return true;
+    }
 }
@@ -0,0 +1,449 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package files.filters;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributes;
+import java.util.*;
+
+/**
+ * This is a library of methods for combining FileFilters. The filters returned 
+ * by {@link #and(java.io.FileFilter...) and} and {@link 
+ * #or(java.io.FileFilter...) or} check the filters they are given in order of 
+ * their {@link FilterCost cost}, so that filters that only look at the names 
+ * of files are checked before filters that need to query the file system, 
+ * and the more expensive filters are skipped entirely when a cheaper filter 
+ * has already decided the result. When a walker has already read the 
+ * attributes of a file, they are shared with every filter that needs them. 
+ * Otherwise, the attributes are only read once the first filter that needs 
+ * them is reached, and are then shared with any other filters that need them. 
+ * <p>
+ *
+ * Filters that are not {@link AttributeFileFilter AttributeFileFilters} are 
+ * assumed to have a cost of {@link FilterCost#ATTRIBUTE ATTRIBUTE}, since they 
+ * typically check whether a file is a directory or how large it is. The {@link 
+ * #withCost(java.io.FileFilter, FilterCost) withCost} method can be used to 
+ * declare the cost of such a filter.
+ * @author Mosblinker
+ * @see FilterCost
+ * @see AttributeFileFilter
+ */
+public final class FileFilters {
+    /**
+     * The type of attributes read for files in the default file system.
+     */
+    private static final Class<? extends BasicFileAttributes> 
+            DEFAULT_ATTRIBUTE_TYPE = 
+                    readAttributeType(FileSystems.getDefault());
+    /**
+     * This class cannot be constructed.
+     */
+    private FileFilters(){}
+    /**
+     * This returns the type of attributes that should be read for files in 
+     * the given file system. This is the type of attributes read by the file 
+     * tree walkers in {@code files.walk}, and by the filters returned by this 
+     * class when they read the attributes of a file themselves. For file 
+     * systems that use DOS attributes natively, such as on Microsoft Windows, 
+     * this will be the DOS attributes, since they can be read at the same cost 
+     * as the basic attributes and allow for checking whether a file is hidden 
+     * without querying the file system again. Otherwise, this will be the 
+     * basic attributes.
+     * @param fs The file system to get the attribute type for.
+     * @return The type of attributes to read.
+     * @see HiddenFileFilter#isHidden(Path, BasicFileAttributes) 
+     */
+    public static Class<? extends BasicFileAttributes> getAttributeType(
+            FileSystem fs){
+        if (fs == FileSystems.getDefault()) // If this is the default system
+            return DEFAULT_ATTRIBUTE_TYPE;
+        return readAttributeType(fs);
+    }
+    /**
+     * This checks which type of attributes should be read for files in the 
+     * given file system.
+     * @param fs The file system to check.
+     * @return The type of attributes to read.
+     */
+    private static Class<? extends BasicFileAttributes> readAttributeType(
+            FileSystem fs){
+            // This gets the file attribute views supported by the file system
+        Set<String> views = fs.supportedFileAttributeViews();
+            // If the file system supports DOS attributes and does not support
+            // POSIX attributes (DOS attributes are emulated on POSIX systems)
+        if (views.contains("dos") && !views.contains("posix"))
+            return DosFileAttributes.class;
+        return BasicFileAttributes.class;
+    }
+    /**
+     * This returns the cost of the given FileFilter. If the filter is an 
+     * {@code AttributeFileFilter}, then this returns its cost. If the filter 
+     * is null, then this returns {@link FilterCost#NAME_ONLY NAME_ONLY}, since 
+     * a null filter accepts everything. Otherwise, this returns {@link 
+     * FilterCost#ATTRIBUTE ATTRIBUTE}.
+     * @param filter The filter to get the cost of.
+     * @return The cost of the filter.
+     * @see AttributeFileFilter#getCost() 
+     */
+    public static FilterCost getCost(java.io.FileFilter filter){
+        if (filter == null)     // If there is no filter
+            return FilterCost.NAME_ONLY;
+        else if (filter instanceof AttributeFileFilter)
+            return ((AttributeFileFilter)filter).getCost();
+        return FilterCost.ATTRIBUTE;
+    }
+    /**
+     * This returns a filter that accepts a file only if all the given filters 
+     * accept it. The filters are checked from cheapest to most expensive, 
+     * and the first filter to reject a file stops the check. Filters with the 
+     * same cost are checked in the order they were given. If no filters are 
+     * given, then the returned filter accepts all files.
+     * @param filters The filters to combine (cannot be null).
+     * @return A filter that accepts files accepted by all the given filters.
+     */
+    public static AttributeFileFilter and(java.io.FileFilter... filters){
+        return and(Arrays.asList(filters));
+    }
+    /**
+     * This returns a filter that accepts a file only if all the given filters 
+     * accept it. The filters are checked from cheapest to most expensive, 
+     * and the first filter to reject a file stops the check. Filters with the 
+     * same cost are checked in the order they were given. If no filters are 
+     * given, then the returned filter accepts all files.
+     * @param filters The filters to combine (cannot be null).
+     * @return A filter that accepts files accepted by all the given filters.
+     */
+    public static AttributeFileFilter and(
+            Collection<? extends java.io.FileFilter> filters){
+        return new CompositeFilter(filters,true);
+    }
+    /**
+     * This returns a filter that accepts a file if any of the given filters 
+     * accept it. The filters are checked from cheapest to most expensive, and 
+     * the first filter to accept a file stops the check. Filters with the 
+     * same cost are checked in the order they were given. If no filters are 
+     * given, then the returned filter rejects all files.
+     * @param filters The filters to combine (cannot be null).
+     * @return A filter that accepts files accepted by any of the given 
+     * filters.
+     */
+    public static AttributeFileFilter or(java.io.FileFilter... filters){
+        return or(Arrays.asList(filters));
+    }
+    /**
+     * This returns a filter that accepts a file if any of the given filters 
+     * accept it. The filters are checked from cheapest to most expensive, and 
+     * the first filter to accept a file stops the check. Filters with the 
+     * same cost are checked in the order they were given. If no filters are 
+     * given, then the returned filter rejects all files.
+     * @param filters The filters to combine (cannot be null).
+     * @return A filter that accepts files accepted by any of the given 
+     * filters.
+     */
+    public static AttributeFileFilter or(
+            Collection<? extends java.io.FileFilter> filters){
+        return new CompositeFilter(filters,false);
+    }
+    /**
+     * This returns a filter that accepts the files that the given filter 
+     * rejects. The returned filter has the same cost as the given filter.
+     * @param filter The filter to negate (cannot be null).
+     * @return A filter that accepts files rejected by the given filter.
+     */
+    public static AttributeFileFilter not(java.io.FileFilter filter){
+        return new NotFilter(filter);
+    }
+    /**
+     * This returns a filter that accepts files whose paths are matched by the 
+     * given PathMatcher. The returned filter has a cost of {@link 
+     * FilterCost#NAME_ONLY NAME_ONLY}, as PathMatchers only look at paths.
+     * @param matcher The PathMatcher to use (cannot be null).
+     * @return A filter that accepts files matched by the PathMatcher.
+     * @see FileSystem#getPathMatcher(java.lang.String) 
+     */
+    public static AttributeFileFilter fromPathMatcher(PathMatcher matcher){
+        Objects.requireNonNull(matcher);
+        if (matcher instanceof AttributeFileFilter) // If already a filter
+            return (AttributeFileFilter) matcher;
+        return new PathMatcherFilter(matcher);
+    }
+    /**
+     * This returns a filter that accepts the same files as the given filter, 
+     * but that reports the given cost. This can be used to tell the filters 
+     * returned by this class how expensive a filter that is not an {@code 
+     * AttributeFileFilter} is, such as a filter that only checks the names of 
+     * files.
+     * @param filter The filter to use (cannot be null).
+     * @param cost The cost of the filter (cannot be null).
+     * @return A filter with the given cost.
+     */
+    public static AttributeFileFilter withCost(java.io.FileFilter filter, 
+            FilterCost cost){
+        return new CostFilter(filter,cost);
+    }
+    /**
+     * This returns whether the given filter accepts the file at the given 
+     * path. If the filter is an {@code AttributeFileFilter}, then it will be 
+     * given the attributes. Otherwise, it will be given the file.
+     * @param filter The filter to use.
+     * @param path The path of the file.
+     * @param attrs The attributes of the file, or null.
+     * @param file The file, or null if it has not been created yet.
+     * @return Whether the filter accepts the file.
+     */
+    private static boolean accept(java.io.FileFilter filter, Path path, 
+            BasicFileAttributes attrs, File file){
+        if (filter instanceof AttributeFileFilter)
+            return ((AttributeFileFilter)filter).accept(path, attrs);
+        return filter.accept((file != null) ? file : path.toFile());
+    }
+    /**
+     * This returns whether the given filter needs to be given the attributes 
+     * of a file before it is checked.
+     * @param filter The filter to check.
+     * @return Whether the filter requires the attributes of files.
+     */
+    private static boolean requiresAttributes(java.io.FileFilter filter){
+        return filter instanceof AttributeFileFilter && 
+                ((AttributeFileFilter)filter).requiresAttributes();
+    }
+    /**
+     * This is a filter that combines other filters, checking them from 
+     * cheapest to most expensive and reading the attributes of a file only 
+     * when a filter needs them.
+     */
+    private static class CompositeFilter implements AttributeFileFilter{
+        /**
+         * The filters to check, sorted from cheapest to most expensive.
+         */
+        private final java.io.FileFilter[] filters;
+        /**
+         * Whether all filters must accept a file, as opposed to any of them.
+         */
+        private final boolean all;
+        /**
+         * The cost of the most expensive filter.
+         */
+        private final FilterCost cost;
+        /**
+         * Whether any of the filters require the attributes of a file.
+         */
+        private final boolean requiresAttrs;
+        /**
+         * This constructs a CompositeFilter with the given filters.
+         * @param filters The filters to combine.
+         * @param all Whether all filters must accept a file.
+         */
+        CompositeFilter(Collection<? extends java.io.FileFilter> filters, 
+                boolean all){
+            this.filters = filters.toArray(new java.io.FileFilter[0]);
+            for (java.io.FileFilter filter : this.filters)
+                Objects.requireNonNull(filter);
+                // Arrays.sort is stable for objects, so filters with the same 
+                // cost stay in the order they were given
+            Arrays.sort(this.filters, Comparator.comparing(
+                    FileFilters::getCost));
+            this.all = all;
+            cost = (this.filters.length == 0) ? FilterCost.NAME_ONLY : 
+                    FileFilters.getCost(this.filters[this.filters.length-1]);
+            requiresAttrs = Arrays.stream(this.filters).anyMatch(
+                    FileFilters::requiresAttributes);
+        }
+        /**
+         * This checks the filters against the given file.
+         * @param path The path of the file.
+         * @param attrs The attributes of the file, or null if they have not 
+         * been read yet.
+         * @param file The file, or null if it has not been created yet.
+         * @return Whether the file is accepted.
+         */
+        private boolean check(Path path, BasicFileAttributes attrs, 
+                File file){
+                // Whether the attributes have been read
+            boolean read = attrs != null;
+            for (java.io.FileFilter filter : filters){
+                boolean accepted;
+                    // If this filter needs attributes that have not been read
+                if (attrs == null && FileFilters.requiresAttributes(filter)){
+                    if (!read){     // If the attributes have not been read yet
+                        read = true;
+                        attrs = readAttributes(path);
+                    }   // Files that cannot be read are not accepted
+                    accepted = attrs != null && FileFilters.accept(filter,path,
+                            attrs,file);
+                } else
+                    accepted = FileFilters.accept(filter,path,attrs,file);
+                    // If this filter decides the result
+                if (accepted != all)
+                    return accepted;
+            }
+            return all;
+        }
+        /**
+         * This reads the attributes of the file at the given path. These are 
+         * the same type of attributes that a walker would read, so that 
+         * filters such as {@link HiddenFileFilter} do not need to query the 
+         * file system again.
+         * @param path The path of the file.
+         * @return The attributes of the file, or null if they could not be 
+         * read.
+         * @see FileFilters#getAttributeType(FileSystem) 
+         */
+        private BasicFileAttributes readAttributes(Path path){
+            try{
+                return Files.readAttributes(path, 
+                        getAttributeType(path.getFileSystem()));
+            }
+            catch (IOException | UnsupportedOperationException | 
+                    SecurityException ex){
+                return null;
+            }
+        }
+        @Override
+        public boolean accept(Path path, BasicFileAttributes attrs) {
+            return check(path,attrs,null);
+        }
+        @Override
+        public boolean accept(File pathname) {
+            if (pathname == null)   // If the pathname is null
+                return false;
+            try{
+                return check(pathname.toPath(),null,pathname);
+            }
+            catch (InvalidPathException ex){
+                return false;
+            }
+        }
+        /**
+         * This returns the cost of the most expensive filter being combined.
+         * @return {@inheritDoc }
+         */
+        @Override
+        public FilterCost getCost(){
+            return cost;
+        }
+        /**
+         * This returns whether any of the filters being combined require the 
+         * attributes of a file. When this is true, a walker that has already 
+         * read the attributes of a file passes them to this, and they are 
+         * shared with the filters instead of being read again. When the 
+         * attributes are not given, this only reads them once the first 
+         * filter that needs them is reached.
+         * @return {@inheritDoc }
+         */
+        @Override
+        public boolean requiresAttributes(){
+            return requiresAttrs;
+        }
+    }
+    /**
+     * This is a filter that accepts the files that another filter rejects.
+     */
+    private static class NotFilter implements AttributeFileFilter{
+        /**
+         * The filter to negate.
+         */
+        private final java.io.FileFilter filter;
+        /**
+         * This constructs a NotFilter for the given filter.
+         * @param filter The filter to negate.
+         */
+        NotFilter(java.io.FileFilter filter){
+            this.filter = Objects.requireNonNull(filter);
+        }
+        @Override
+        public boolean accept(Path path, BasicFileAttributes attrs) {
+            return !FileFilters.accept(filter,path,attrs,null);
+        }
+        @Override
+        public boolean accept(File pathname) {
+            return pathname != null && !filter.accept(pathname);
+        }
+        @Override
+        public FilterCost getCost(){
+            return FileFilters.getCost(filter);
+        }
+        @Override
+        public boolean requiresAttributes(){
+            return FileFilters.requiresAttributes(filter);
+        }
+    }
+    /**
+     * This is a filter that accepts the files matched by a PathMatcher.
+     */
+    private static class PathMatcherFilter implements AttributeFileFilter{
+        /**
+         * The PathMatcher to use.
+         */
+        private final PathMatcher matcher;
+        /**
+         * This constructs a PathMatcherFilter for the given PathMatcher.
+         * @param matcher The PathMatcher to use.
+         */
+        PathMatcherFilter(PathMatcher matcher){
+            this.matcher = matcher;
+        }
+        @Override
+        public boolean accept(Path path, BasicFileAttributes attrs) {
+            return matcher.matches(path);
+        }
+        @Override
+        public boolean accept(File pathname) {
+            if (pathname == null)   // If the pathname is null
+                return false;
+            try{
+                return matcher.matches(pathname.toPath());
+            }
+            catch (InvalidPathException ex){
+                return false;
+            }
+        }
+        @Override
+        public FilterCost getCost(){
+            return FilterCost.NAME_ONLY;
+        }
+    }
+    /**
+     * This is a filter that wraps another filter and reports a given cost.
+     */
+    private static class CostFilter implements AttributeFileFilter{
+        /**
+         * The filter to use.
+         */
+        private final java.io.FileFilter filter;
+        /**
+         * The cost of the filter.
+         */
+        private final FilterCost cost;
+        /**
+         * This constructs a CostFilter for the given filter and cost.
+         * @param filter The filter to use.
+         * @param cost The cost of the filter.
+         */
+        CostFilter(java.io.FileFilter filter, FilterCost cost){
+            this.filter = Objects.requireNonNull(filter);
+            this.cost = Objects.requireNonNull(cost);
+        }
+        @Override
+        public boolean accept(Path path, BasicFileAttributes attrs) {
+            return FileFilters.accept(filter,path,attrs,null);
+        }
+        @Override
+        public boolean accept(File pathname) {
+            return filter.accept(pathname);
+        }
+        @Override
+        public FilterCost getCost(){
+            return cost;
+        }
+        @Override
+        public boolean requiresAttributes(){
+            return FileFilters.requiresAttributes(filter);
+        }
+    }
+}
@@ -6,14 +6,15 @@
 package files.filters;
 
 import java.io.File;
-import java.io.FileFilter;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 
 /**
  * This is a FileFilter to filter out files with sizes that are either too 
  * large or too small.
  * @author Milo Steier
  */
-public class FileSizeFilter implements FileFilter{
+public class FileSizeFilter implements AttributeFileFilter{
     /**
      * The minimum size a file can be to be accepted. Negative values indicate 
      * that there is no limit to how small a file can be.
@@ -114,7 +115,30 @@ public class FileSizeFilter implements FileFilter{
     @Override
     public boolean accept(File pathname) {
         return pathname != null && pathname.isFile() && 
-                (!isMinimumSizeSet() || pathname.length() >= min) && 
-                (!isMaximumSizeSet() || pathname.length() <= max);
+                accept(pathname.length());
+    }
+    /**
+     * This returns whether the given attributes denote a normal file that has 
+     * a size that is within the minimum and maximum file sizes, inclusive. If 
+     * the attributes denote a directory, then this will return false.
+     * @param path {@inheritDoc }
+     * @param attrs {@inheritDoc }
+     * @return {@inheritDoc }
+     * @see #getMinumum() 
+     * @see #getMaximum() 
+     */
+    @Override
+    public boolean accept(Path path, BasicFileAttributes attrs) {
+        return attrs.isRegularFile() && accept(attrs.size());
+    }
+    /**
+     * This returns whether the given file size is within the minimum and 
+     * maximum file sizes, inclusive.
+     * @param length The size of the file, in bytes.
+     * @return Whether the file size is within range.
+     */
+    private boolean accept(long length){
+        return (!isMinimumSizeSet() || length >= min) && 
+                (!isMaximumSizeSet() || length <= max);
     }
 }
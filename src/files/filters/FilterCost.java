@@ -0,0 +1,36 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Enum.java to edit this template
+ */
+package files.filters;
+
+/**
+ * This describes how expensive it is for a FileFilter to decide whether to 
+ * accept a file, based on what the filter needs to look at. The constants are 
+ * declared from cheapest to most expensive, so their natural order can be used 
+ * to decide which filters to check first. Combined filters created by {@link 
+ * FileFilters} use this to check cheaper filters before more expensive ones.
+ * @author Mosblinker
+ * @see AttributeFileFilter#getCost() 
+ * @see FileFilters
+ */
+public enum FilterCost {
+    /**
+     * This indicates that the filter only looks at the path of the file, such 
+     * as its name or extension, and does not need to query the file system.
+     */
+    NAME_ONLY,
+    /**
+     * This indicates that the filter looks at the attributes of the file, 
+     * such as whether it is a directory, its size, or when it was last 
+     * modified, which requires the file system to be queried once if the 
+     * attributes have not already been read. This is the cost assumed for 
+     * filters that do not say what their cost is.
+     */
+    ATTRIBUTE,
+    /**
+     * This indicates that the filter opens and reads the file or directory 
+     * itself, such as to check its contents.
+     */
+    CONTENT
+}
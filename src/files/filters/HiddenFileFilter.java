@@ -6,13 +6,29 @@
 package files.filters;
 
 import java.io.File;
-import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributes;
 
 /**
  * This is a FileFilter that filters out hidden files.
  * @author Milo Steier
  */
-public class HiddenFileFilter implements FileFilter{
+public class HiddenFileFilter implements AttributeFileFilter{
+    /**
+     * This stores whether the default file system decides whether a file is 
+     * hidden based only on its name. This is true for file systems that 
+     * support POSIX attributes, such as on UNIX systems, where a file is 
+     * hidden when its name begins with a period, and false for file systems 
+     * that use DOS attributes natively, such as on Microsoft Windows, where 
+     * the walkers read the DOS attributes of each file instead.
+     * @see FileFilters#getAttributeType(java.nio.file.FileSystem) 
+     */
+    private static final boolean HIDDEN_BY_NAME = FileFilters.getAttributeType(
+            FileSystems.getDefault()) != DosFileAttributes.class;
     /**
      * This constructs an HiddenFileFilter that filters out hidden files.
      */
@@ -22,4 +38,41 @@ public class HiddenFileFilter implements FileFilter{
     public boolean accept(File pathname) {
         return pathname != null && !pathname.isHidden();
     }
+    @Override
+    public boolean accept(Path path, BasicFileAttributes attrs) {
+        return !isHidden(path,attrs);
+    }
+    /**
+     * This returns {@link FilterCost#NAME_ONLY NAME_ONLY} if the default file 
+     * system decides whether a file is hidden based only on its name, as on 
+     * UNIX systems. Otherwise, this returns {@link FilterCost#ATTRIBUTE 
+     * ATTRIBUTE}, since the hidden flag of the file needs to be read.
+     * @return {@inheritDoc }
+     */
+    @Override
+    public FilterCost getCost(){
+        return (HIDDEN_BY_NAME) ? FilterCost.NAME_ONLY : FilterCost.ATTRIBUTE;
+    }
+    /**
+     * This returns whether the file at the given path is hidden, using the 
+     * given attributes if they are able to tell. If the attributes are DOS 
+     * attributes, then their hidden flag is used. Otherwise, this defers to 
+     * {@link Files#isHidden(Path) Files.isHidden}, which does not need to 
+     * query the file system on UNIX systems, where a file is hidden when its 
+     * name begins with a period.
+     * @param path The path of the file to check.
+     * @param attrs The attributes of the file, or null if they have not been 
+     * read.
+     * @return Whether the file is hidden.
+     */
+    public static boolean isHidden(Path path, BasicFileAttributes attrs){
+        if (attrs instanceof DosFileAttributes) // If these are DOS attributes
+            return ((DosFileAttributes) attrs).isHidden();
+        try{
+            return Files.isHidden(path);
+        }
+        catch (IOException | SecurityException ex){
+            return false;
+        }
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package files.walk;
+
+import java.io.Closeable;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * This is a Consumer that collects the values given to it into batches of a 
+ * fixed size, and passes each batch to another Consumer once it is full. This 
+ * allows the results of a file walk to be written to a database, a queue, or 
+ * a file in chunks without collecting all of the results into one list first. 
+ * Any values left over in a partially filled batch are passed on when this is 
+ * {@link #flush() flushed} or closed. <p>
+ *
+ * This is safe to use from multiple threads, such as when given to a {@link 
+ * ParallelFileWalker}. The batches are passed on while holding the lock for 
+ * this BatchingConsumer, and so batches are passed on one at a time and in 
+ * the order they were filled. Each batch is a new list that is not used by 
+ * this BatchingConsumer afterwards.
+ * @author Mosblinker
+ * @param <T> The type of values to collect.
+ * @see FileTreeIterator
+ * @see ParallelFileWalker#forEach(java.nio.file.Path, java.io.FileFilter, 
+ * java.io.FileFilter, int, Consumer, WalkOption...) 
+ */
+public class BatchingConsumer<T> implements Consumer<T>, Closeable{
+    /**
+     * The Consumer to pass the batches to.
+     */
+    private final Consumer<? super List<T>> batchConsumer;
+    /**
+     * The maximum number of values in a batch.
+     */
+    private final int batchSize;
+    /**
+     * The batch currently being filled.
+     */
+    private List<T> batch;
+    /**
+     * The number of batches that have been passed on.
+     */
+    private long batchCount = 0;
+    /**
+     * This constructs a BatchingConsumer that passes batches of the given size 
+     * to the given Consumer.
+     * @param batchSize The maximum number of values in a batch.
+     * @param batchConsumer The Consumer to pass the batches to (cannot be 
+     * null).
+     * @throws IllegalArgumentException If the batch size is less than or 
+     * equal to zero.
+     */
+    public BatchingConsumer(int batchSize, 
+            Consumer<? super List<T>> batchConsumer){
+        if (batchSize <= 0)     // If the batch size is not positive
+            throw new IllegalArgumentException("Batch size must be positive: "+
+                    batchSize);
+        this.batchConsumer = Objects.requireNonNull(batchConsumer);
+        this.batchSize = batchSize;
+        batch = new ArrayList<>(batchSize);
+    }
+    /**
+     * This returns the maximum number of values in a batch.
+     * @return The batch size.
+     */
+    public int getBatchSize(){
+        return batchSize;
+    }
+    /**
+     * This returns the number of batches that have been passed on so far.
+     * @return The number of batches that have been passed on.
+     */
+    public synchronized long getBatchCount(){
+        return batchCount;
+    }
+    /**
+     * This adds the given value to the current batch, and passes the batch on 
+     * if it is full.
+     * @param value The value to add.
+     */
+    @Override
+    public synchronized void accept(T value) {
+        batch.add(value);
+        if (batch.size() >= batchSize)  // If the batch is full
+            flush();
+    }
+    /**
+     * This passes the current batch on if it contains any values, even if it 
+     * is not full.
+     */
+    public synchronized void flush(){
+        if (batch.isEmpty())    // If there is nothing to pass on
+            return;
+        List<T> temp = batch;
+        batch = new ArrayList<>(batchSize);
+        batchCount++;
+        batchConsumer.accept(temp);
+    }
+    /**
+     * This passes on any values that are left in the current batch.
+     */
+    @Override
+    public void close() {
+        flush();
+    }
+}
@@ -0,0 +1,584 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package files.walk;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.zip.*;
+
+/**
+ * This is a snapshot of the contents of a folder that can be incrementally
+ * rescanned. The snapshot records the last modified time of each directory
+ * along with the name, type, size, and last modified time of each of its
+ * entries. When the folder is rescanned, only the directories whose last
+ * modified time has changed are listed again, and the changes since the
+ * previous scan are returned as a {@link Delta}. Since adding, removing, or
+ * renaming an entry in a directory changes the directory's last modified time,
+ * directories that have not changed can be skipped without being read. <p>
+ *
+ * The first time a DirectorySnapshot is scanned, every entry is reported as
+ * added. Directories that were modified shortly before, or at any time after,
+ * the previous scan started are always listed again. File systems take their
+ * timestamps from a clock that can lag behind the system clock by a few
+ * milliseconds, and some only store timestamps to the nearest two seconds, so
+ * a change made just after a scan started may be stamped with an earlier
+ * time. Listing these directories again makes sure such changes are not
+ * missed. By default, the files in
+ * unchanged directories are not checked for modifications to their contents,
+ * as doing so requires the attributes of each file to be read; {@link
+ * #rescan(boolean) rescan(true)} can be used to check them as well. <p>
+ *
+ * This uses the same filter and depth rules as {@link FileTreeIterator}, with
+ * the root folder's contents being at a subfolder depth of 1. Only the entries
+ * that are accepted by the filter are recorded, and only the directories that
+ * are accepted by the filter are descended into. Symbolic links to
+ * directories are followed, but a directory that can be reached through more
+ * than one path is only listed once per scan. <p>
+ *
+ * A DirectorySnapshot can be {@link #save(Path) saved} to a compact file and
+ * {@link #load(Path, java.io.FileFilter) loaded} again later, so that a
+ * restarted process can continue rescanning incrementally. <p>
+ *
+ * DirectorySnapshots are not safe for use by multiple threads at once.
+ * @author Mosblinker
+ */
+public class DirectorySnapshot {
+    /**
+     * The number used to identify files containing a DirectorySnapshot.
+     */
+    private static final int FILE_MAGIC_NUMBER = 0x46584453;
+    /**
+     * The version of the format used to save DirectorySnapshots.
+     */
+    private static final int FILE_FORMAT_VERSION = 1;
+    /**
+     * The amount of time, in milliseconds, before the previous scan started 
+     * during which a directory is still considered to have possibly changed 
+     * since that scan. This covers the coarse clocks that file systems use 
+     * for timestamps, and the two second resolution of FAT timestamps.
+     */
+    private static final long TIMESTAMP_MARGIN = 2000;
+    /**
+     * The root folder for this snapshot.
+     */
+    private final Path root;
+    /**
+     * The filter for the entries, or null if all entries are accepted.
+     */
+    private final java.io.FileFilter filter;
+    /**
+     * The maximum subfolder depth, or negative if unlimited.
+     */
+    private final int depth;
+    /**
+     * The type of file attributes to read for the entries.
+     */
+    private final Class<? extends BasicFileAttributes> attrType;
+    /**
+     * This maps the directories that have been listed to their listings.
+     */
+    private Map<Path, Listing> listings = new HashMap<>();
+    /**
+     * The time at which the previous scan started, in milliseconds, or
+     * {@code Long.MIN_VALUE} if this has not been scanned yet.
+     */
+    private long scanTime = Long.MIN_VALUE;
+    /**
+     * This constructs an empty DirectorySnapshot for the given folder, using
+     * the given FileFilter and up until the given subfolder depth. The
+     * snapshot will be populated when it is first {@link #rescan() scanned}.
+     * @param root The folder to take snapshots of (cannot be null).
+     * @param filter The filter for the entries, or null if no filter.
+     * @param depth The maximum subfolder depth, or negative if unlimited.
+     */
+    public DirectorySnapshot(Path root, java.io.FileFilter filter, int depth){
+        this.root = Objects.requireNonNull(root);
+        this.filter = filter;
+        this.depth = depth;
+        attrType = WalkSupport.getAttributeType(root.getFileSystem());
+    }
+    /**
+     * This constructs an empty DirectorySnapshot for the entire file tree of
+     * the given folder, using the given FileFilter.
+     * @param root The folder to take snapshots of (cannot be null).
+     * @param filter The filter for the entries, or null if no filter.
+     */
+    public DirectorySnapshot(Path root, java.io.FileFilter filter){
+        this(root,filter,-1);
+    }
+    /**
+     * This returns the folder that this takes snapshots of.
+     * @return The root folder.
+     */
+    public Path getRoot(){
+        return root;
+    }
+    /**
+     * This returns the FileFilter used to filter the entries.
+     * @return The filter for the entries, or null if there is no filter.
+     */
+    public java.io.FileFilter getFileFilter(){
+        return filter;
+    }
+    /**
+     * This returns the maximum subfolder depth that this will go to.
+     * @return The maximum subfolder depth, or negative if unlimited.
+     */
+    public int getMaximumDepth(){
+        return depth;
+    }
+    /**
+     * This returns whether this snapshot has been scanned yet.
+     * @return Whether this has been scanned.
+     */
+    public boolean isScanned(){
+        return scanTime != Long.MIN_VALUE;
+    }
+    /**
+     * This returns the paths of all the entries recorded in this snapshot.
+     * This does not access the file system.
+     * @return A list of the paths in this snapshot.
+     */
+    public List<Path> getPaths(){
+            // This gets the list of paths
+        List<Path> paths = new ArrayList<>();
+            // Go through the listed directories
+        for (Map.Entry<Path, Listing> listing : listings.entrySet()){
+            for (String name : listing.getValue().entries.keySet())
+                paths.add(listing.getKey().resolve(name));
+        }
+        return paths;
+    }
+    /**
+     * This returns whether this snapshot contains an entry for the given path.
+     * This does not access the file system.
+     * @param path The path to check for.
+     * @return Whether the path was present when this was last scanned.
+     */
+    public boolean contains(Path path){
+            // Get the parent of the path
+        Path parent = path.getParent();
+        if (parent == null || path.getFileName() == null)
+            return false;
+            // Get the listing for the parent directory
+        Listing listing = listings.get(parent);
+        return listing != null && listing.entries.containsKey(
+                path.getFileName().toString());
+    }
+    /**
+     * This returns the subfolder depth of the given directory.
+     * @param dir The directory to get the depth of.
+     * @return The directory's subfolder depth.
+     */
+    private int getDepth(Path dir){
+        return dir.getNameCount() - root.getNameCount();
+    }
+    /**
+     * This lists the given directory, returning the accepted entries.
+     * @param dir The directory to list.
+     * @param modified The last modified time of the directory.
+     * @return The listing for the directory.
+     */
+    private Listing list(Path dir, long modified){
+            // This gets the listing for the directory
+        Listing listing = new Listing(modified);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)){
+            for (Path path : stream){   // Go through the directory
+                    // Get the attributes of the path
+                BasicFileAttributes attrs = WalkSupport.readAttributes(path,
+                        attrType);
+                    // If the path could not be read or is not accepted
+                if (attrs == null || !WalkSupport.accept(filter,path,attrs))
+                    continue;
+                listing.entries.put(path.getFileName().toString(),
+                        new Entry(attrs));
+            }
+        }   // Unreadable directories are treated as if they were empty
+        catch (IOException | DirectoryIteratorException |
+                SecurityException ex) { }
+        return listing;
+    }
+    /**
+     * This adds the given path and all the entries in the previous snapshot
+     * under it to the removed paths of the given delta.
+     * @param path The path that was removed.
+     * @param entry The previous entry for the path.
+     * @param delta The delta to add to.
+     */
+    private void remove(Path path, Entry entry, Delta delta){
+        delta.removed.add(path);
+        if (!entry.directory)   // If the path was not a directory
+            return;
+            // This is a stack of the directories that were removed
+        Deque<Path> dirs = new ArrayDeque<>();
+        dirs.push(path);
+        while (!dirs.isEmpty()){    // While there are directories left
+            Path dir = dirs.pop();
+                // Get the previous listing for the directory
+            Listing listing = listings.get(dir);
+            if (listing == null)    // If the directory was not listed
+                continue;
+            for (Map.Entry<String, Entry> temp : listing.entries.entrySet()){
+                Path child = dir.resolve(temp.getKey());
+                delta.removed.add(child);
+                if (temp.getValue().directory)  // If this is a directory
+                    dirs.push(child);
+            }
+        }
+    }
+    /**
+     * This compares the previous listing of the given directory with its
+     * current listing and adds the differences to the given delta.
+     * @param dir The directory that was listed.
+     * @param oldListing The previous listing, or null if there was none.
+     * @param newListing The current listing.
+     * @param delta The delta to add to.
+     */
+    private void compare(Path dir, Listing oldListing, Listing newListing,
+            Delta delta){
+            // Go through the current entries
+        for (Map.Entry<String, Entry> temp : newListing.entries.entrySet()){
+                // Get the previous entry with the same name
+            Entry old = (oldListing != null) ?
+                    oldListing.entries.get(temp.getKey()) : null;
+            Path path = dir.resolve(temp.getKey());
+            if (old == null)        // If this entry was added
+                delta.added.add(path);
+                // If this entry changed from a directory to a file
+            else if (old.directory && !temp.getValue().directory){
+                remove(path,old,delta);
+                delta.added.add(path);
+            }   // If the entry has been changed
+            else if (!old.equals(temp.getValue()))
+                delta.modified.add(path);
+        }
+        if (oldListing == null)     // If there was no previous listing
+            return;
+            // Go through the previous entries
+        for (Map.Entry<String, Entry> temp : oldListing.entries.entrySet()){
+                // If the entry was removed
+            if (!newListing.entries.containsKey(temp.getKey()))
+                remove(dir.resolve(temp.getKey()),temp.getValue(),delta);
+        }
+    }
+    /**
+     * This checks the files in the given unchanged listing for changes to
+     * their size or last modified time, updating the listing and adding any
+     * changed files to the given delta.
+     * @param dir The directory of the listing.
+     * @param listing The listing to check.
+     * @param delta The delta to add to.
+     */
+    private void verify(Path dir, Listing listing, Delta delta){
+            // Go through the entries in the listing
+        for (Map.Entry<String, Entry> temp : listing.entries.entrySet()){
+            if (temp.getValue().directory)  // If this is a directory
+                continue;
+            Path path = dir.resolve(temp.getKey());
+                // Get the current attributes of the file
+            BasicFileAttributes attrs = WalkSupport.readAttributes(path,
+                    attrType);
+            if (attrs == null)  // If the file can no longer be read
+                continue;
+            Entry entry = new Entry(attrs);
+            if (!entry.equals(temp.getValue())){// If the file has changed
+                temp.setValue(entry);
+                delta.modified.add(path);
+            }
+        }
+    }
+    /**
+     * This rescans the folder, listing only the directories that have changed
+     * since the previous scan, and returns the changes. If {@code
+     * verifyFiles} is true, then the files in the directories that have not
+     * changed will also be checked for changes to their size or last modified
+     * time. If this has not been scanned before, then the entire folder will
+     * be scanned and every entry will be reported as added.
+     * @param verifyFiles Whether to check the files in unchanged directories
+     * for modifications.
+     * @return The changes to the folder since the previous scan.
+     */
+    public Delta rescan(boolean verifyFiles){
+            // This gets the time at which this scan started
+        long startTime = System.currentTimeMillis();
+            // This gets the changes to the folder
+        Delta delta = new Delta();
+            // This gets the updated directory listings
+        Map<Path, Listing> updated = new HashMap<>();
+            // This is a stack of the directories to check
+        Deque<Path> dirs = new ArrayDeque<>();
+            // This gets the file keys of the directories that have been 
+            // checked, so that symbolic links cannot cause a directory to be 
+        Set<Object> visited = new HashSet<>();  // checked more than once
+        if (depth != 0)     // If the root folder's contents are to be scanned
+            dirs.push(root);
+        while (!dirs.isEmpty()){    // While there are directories to check
+            Path dir = dirs.pop();
+                // Get the previous listing for the directory
+            Listing listing = listings.get(dir);
+                // Get the current attributes of the directory
+            BasicFileAttributes attrs = WalkSupport.readAttributes(dir,
+                    attrType);
+                // This gets the last modified time of the directory
+            long modified = (attrs != null && attrs.isDirectory()) ?
+                    attrs.lastModifiedTime().toMillis() : Long.MIN_VALUE;
+                // If the directory has already been checked through another 
+            if (modified != Long.MIN_VALUE &&   // path
+                    !visited.add(WalkSupport.getFileKey(dir, attrs)))
+                continue;
+                // If the directory has not changed since the previous scan, 
+                // and was last modified long enough before it started
+            if (listing != null && listing.modified == modified &&
+                    modified < scanTime && 
+                    scanTime - modified > TIMESTAMP_MARGIN){
+                if (verifyFiles)    // If the files are to be checked
+                    verify(dir,listing,delta);
+            } else {
+                    // Get the new listing for the directory
+                Listing temp = (modified != Long.MIN_VALUE) ?
+                        list(dir,modified) : new Listing(modified);
+                compare(dir,listing,temp,delta);
+                listing = temp;
+            }
+            updated.put(dir, listing);
+                // If the subdirectories are beyond the maximum depth
+            if (depth >= 0 && getDepth(dir)+1 >= depth)
+                continue;
+                // Go through the entries in the directory
+            for (Map.Entry<String, Entry> temp : listing.entries.entrySet()){
+                if (temp.getValue().directory)  // If this is a directory
+                    dirs.push(dir.resolve(temp.getKey()));
+            }
+        }
+        listings = updated;
+        scanTime = startTime;
+        return delta;
+    }
+    /**
+     * This rescans the folder, listing only the directories that have changed
+     * since the previous scan, and returns the changes. The files in
+     * directories that have not changed are not checked for changes to their
+     * contents.
+     * @return The changes to the folder since the previous scan.
+     * @see #rescan(boolean)
+     */
+    public Delta rescan(){
+        return rescan(false);
+    }
+    /**
+     * This saves this snapshot to the given file. The paths of the directories
+     * are stored relative to the root folder.
+     * @param file The file to save to.
+     * @throws IOException If an I/O error occurs.
+     * @see #load(Path, java.io.FileFilter)
+     */
+    public void save(Path file) throws IOException{
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new GZIPOutputStream(
+                        Files.newOutputStream(file))))){
+            out.writeInt(FILE_MAGIC_NUMBER);
+            out.writeInt(FILE_FORMAT_VERSION);
+            out.writeUTF(root.toString());
+            out.writeInt(depth);
+            out.writeLong(scanTime);
+            out.writeInt(listings.size());
+                // Go through the directory listings
+            for (Map.Entry<Path, Listing> listing : listings.entrySet()){
+                out.writeUTF(root.relativize(listing.getKey()).toString());
+                out.writeLong(listing.getValue().modified);
+                out.writeInt(listing.getValue().entries.size());
+                    // Go through the entries in the directory
+                for (Map.Entry<String, Entry> temp :
+                        listing.getValue().entries.entrySet()){
+                    out.writeUTF(temp.getKey());
+                    out.writeBoolean(temp.getValue().directory);
+                    out.writeLong(temp.getValue().size);
+                    out.writeLong(temp.getValue().modified);
+                }
+            }
+        }
+    }
+    /**
+     * This loads a DirectorySnapshot from the given file, using the given
+     * FileFilter for future scans. The filter should generally be the same as
+     * the filter used by the snapshot that was saved.
+     * @param file The file to load from.
+     * @param filter The filter for the entries, or null if no filter.
+     * @return The DirectorySnapshot that was loaded.
+     * @throws IOException If an I/O error occurs or if the file does not
+     * contain a DirectorySnapshot.
+     * @see #save(Path)
+     */
+    public static DirectorySnapshot load(Path file, java.io.FileFilter filter)
+            throws IOException{
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))))){
+                // If the file does not contain a snapshot
+            if (in.readInt() != FILE_MAGIC_NUMBER)
+                throw new StreamCorruptedException("File does not contain a "
+                        + "directory snapshot");
+                // Get the version of the format used by the file
+            int version = in.readInt();
+            if (version != FILE_FORMAT_VERSION)
+                throw new StreamCorruptedException("Unsupported directory "
+                        + "snapshot version: " + version);
+            Path root = file.getFileSystem().getPath(in.readUTF());
+            DirectorySnapshot snapshot = new DirectorySnapshot(root,filter,
+                    in.readInt());
+            snapshot.scanTime = in.readLong();
+                // Go through the directory listings
+            for (int i = in.readInt(); i > 0; i--){
+                Path dir = root.resolve(in.readUTF());
+                Listing listing = new Listing(in.readLong());
+                    // Go through the entries in the directory
+                for (int j = in.readInt(); j > 0; j--){
+                    String name = in.readUTF();
+                    listing.entries.put(name, new Entry(in.readBoolean(),
+                            in.readLong(),in.readLong()));
+                }
+                snapshot.listings.put(dir, listing);
+            }
+            return snapshot;
+        }
+    }
+    /**
+     * This contains the changes to a folder between two scans of a {@code
+     * DirectorySnapshot}.
+     */
+    public static class Delta{
+        /**
+         * The paths that have been added.
+         */
+        private final List<Path> added = new ArrayList<>();
+        /**
+         * The paths that have been removed.
+         */
+        private final List<Path> removed = new ArrayList<>();
+        /**
+         * The paths that have been modified.
+         */
+        private final List<Path> modified = new ArrayList<>();
+        /**
+         * This constructs an empty Delta.
+         */
+        private Delta(){}
+        /**
+         * This returns the paths that have been added since the previous scan.
+         * @return An unmodifiable list of the added paths.
+         */
+        public List<Path> getAdded(){
+            return Collections.unmodifiableList(added);
+        }
+        /**
+         * This returns the paths that have been removed since the previous
+         * scan. When a directory is removed, the paths of the directory's
+         * previously recorded contents are included as well.
+         * @return An unmodifiable list of the removed paths.
+         */
+        public List<Path> getRemoved(){
+            return Collections.unmodifiableList(removed);
+        }
+        /**
+         * This returns the paths whose size or last modified time have changed
+         * since the previous scan.
+         * @return An unmodifiable list of the modified paths.
+         */
+        public List<Path> getModified(){
+            return Collections.unmodifiableList(modified);
+        }
+        /**
+         * This returns whether there were no changes.
+         * @return Whether nothing was added, removed, or modified.
+         */
+        public boolean isEmpty(){
+            return added.isEmpty() && removed.isEmpty() && modified.isEmpty();
+        }
+        @Override
+        public String toString(){
+            return getClass().getSimpleName()+"[added="+added+",removed="+
+                    removed+",modified="+modified+"]";
+        }
+    }
+    /**
+     * This is the recorded listing of a directory.
+     */
+    private static class Listing{
+        /**
+         * The last modified time of the directory, in milliseconds.
+         */
+        final long modified;
+        /**
+         * This maps the names of the accepted entries to their records.
+         */
+        final Map<String, Entry> entries = new HashMap<>();
+        /**
+         * This constructs an empty Listing.
+         * @param modified The last modified time of the directory.
+         */
+        Listing(long modified){
+            this.modified = modified;
+        }
+    }
+    /**
+     * This is the record of an entry in a directory.
+     */
+    private static class Entry{
+        /**
+         * Whether the entry is a directory.
+         */
+        final boolean directory;
+        /**
+         * The size of the entry, in bytes.
+         */
+        final long size;
+        /**
+         * The last modified time of the entry, in milliseconds.
+         */
+        final long modified;
+        /**
+         * This constructs an Entry with the given values.
+         * @param directory Whether the entry is a directory.
+         * @param size The size of the entry.
+         * @param modified The last modified time of the entry.
+         */
+        Entry(boolean directory, long size, long modified){
+            this.directory = directory;
+            this.size = size;
+            this.modified = modified;
+        }
+        /**
+         * This constructs an Entry from the given attributes.
+         * @param attrs The attributes of the entry.
+         */
+        Entry(BasicFileAttributes attrs){
+            this(attrs.isDirectory(),attrs.size(),
+                    attrs.lastModifiedTime().toMillis());
+        }
+        @Override
+        public boolean equals(Object obj){
+            if (obj == this)    // If the object is this Entry
+                return true;
+            if (!(obj instanceof Entry))    // If the object is not an Entry
+                return false;
+            Entry temp = (Entry) obj;
+                // Directories are compared only by their type, since their
+                // contents are tracked separately
+            return directory == temp.directory && (directory ||
+                    (size == temp.size && modified == temp.modified));
+        }
+        @Override
+        public int hashCode(){
+            int hash = 7;
+            hash = 41 * hash + Boolean.hashCode(directory);
+            if (!directory){    // If this is not a directory
+                hash = 41 * hash + Long.hashCode(size);
+                hash = 41 * hash + Long.hashCode(modified);
+            }
+            return hash;
+        }
+    }
+}
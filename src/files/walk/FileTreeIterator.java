@@ -0,0 +1,455 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package files.walk;
+
+import files.filters.AttributeFileFilter;
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * This is an Iterator that lazily walks a file tree, returning the paths of
+ * the files that are accepted by a FileFilter. By default, this uses the same
+ * filter and depth rules as {@link files.FilesExtended#getFilesFromFolder(
+ * java.io.File, java.util.ArrayList, java.io.FileFilter, int)
+ * FilesExtended.getFilesFromFolder}: the starting file is returned if it is
+ * accepted, and the contents of a directory are only checked if the directory
+ * itself is accepted and is above the maximum subfolder depth. Files are
+ * returned in depth-first pre-order, in the order that the directories list
+ * them in, unless the {@link WalkOption#BREADTH_FIRST BREADTH_FIRST} option 
+ * is given, in which case all the files at one subfolder depth are returned 
+ * before any of the directories at the next depth are listed. <p>
+ *
+ * A FileTreeIterator can also be constructed with a separate directory filter,
+ * which decides which directories are descended into independently of which
+ * files are returned. Directories that are rejected by the directory filter
+ * are not listed at all, which allows for entire subtrees to be skipped while
+ * still filtering the files that are returned, and directories do not need to
+ * be accepted by the file filter in order to be descended into. <p>
+ *
+ * Rather than recursing into each directory, this keeps an explicit stack of
+ * the open directory listings, and only reads the next entry of a directory
+ * when the next path is requested. As such, the memory used by this depends
+ * on the depth of the tree and not on the number of files in the tree, and
+ * deep trees cannot cause a {@code StackOverflowError}. Directories that
+ * cannot be read are skipped. <p>
+ *
+ * The attributes of each file are read at most once. If the filter is an
+ * {@link AttributeFileFilter}, then it will be given these attributes rather
+ * than having to query the file system itself, and the same attributes are
+ * used to determine whether the file is a directory. <p>
+ *
+ * By default, symbolic links to directories are followed and no attempt is
+ * made to detect cycles in the file tree. The {@link WalkOption#DETECT_CYCLES
+ * DETECT_CYCLES} and {@link WalkOption#COLLAPSE_HARD_LINKS
+ * COLLAPSE_HARD_LINKS} options can be used to keep track of the directories
+ * and files that have been visited, respectively, and skip files that have
+ * already been visited through another path. <p>
+ *
+ * Since this holds open directory listings, this should be closed once it is
+ * no longer needed if it has not been fully traversed.
+ * @author Mosblinker
+ * @see files.FilesExtended#streamFilesFromFolder(java.io.File,
+ * java.io.FileFilter, int)
+ */
+public class FileTreeIterator implements Iterator<Path>, Closeable{
+    /**
+     * The filter for the files, or null if all files are accepted.
+     */
+    private final java.io.FileFilter filter;
+    /**
+     * The filter for which directories to descend into, or null if all 
+     * directories are descended into. If this is the same as the filter for 
+     * the files, then only directories that are returned are descended into.
+     */
+    private final java.io.FileFilter descendFilter;
+    /**
+     * The maximum subfolder depth, or negative if unlimited.
+     */
+    private final int depth;
+    /**
+     * The type of file attributes to read for the files.
+     */
+    private final Class<? extends BasicFileAttributes> attrType;
+    /**
+     * The file keys of the directories that have been descended into, or null 
+     * if cycles are not being detected.
+     */
+    private final Set<Object> visitedDirs;
+    /**
+     * The file keys of the non-directory files that have been returned, or 
+     * null if hard links are not being collapsed.
+     */
+    private final Set<Object> visitedFiles;
+    /**
+     * The stack of the directory listings that are currently open, with the
+     * deepest directory on top.
+     */
+    private final Deque<DirectoryListing> stack = new ArrayDeque<>();
+    /**
+     * The queue of directories that are waiting to be listed, or null if the 
+     * file tree is being walked depth-first.
+     */
+    private final Deque<PendingDirectory> queue;
+    /**
+     * The starting path, or null if the starting path has already been
+     * checked.
+     */
+    private Path start;
+    /**
+     * The next path to return, or null if the next path has not been found
+     * yet.
+     */
+    private Path next = null;
+    /**
+     * Whether this iterator has been closed.
+     */
+    private boolean closed = false;
+    /**
+     * The number of directories that have been opened for listing.
+     */
+    private long dirCount = 0;
+    /**
+     * The number of paths that have been checked.
+     */
+    private long entryCount = 0;
+    /**
+     * This constructs a FileTreeIterator that walks the file tree starting at
+     * the given path, returning the files accepted by the given FileFilter and 
+     * descending into the directories accepted by the given directory filter, 
+     * up until the given subfolder depth. The directory filter is only given 
+     * directories, and whether a directory is returned is decided only by the 
+     * file filter.
+     * @param start The file or folder to start at (cannot be null).
+     * @param filter The filter for the files to return, or null if all files 
+     * are to be returned.
+     * @param descendFilter The filter for the directories to descend into, or 
+     * null if all directories are to be descended into.
+     * @param depth The maximum subfolder depth, or negative if unlimited.
+     * @param options The options for how to walk the file tree.
+     * @see WalkOption
+     */
+    public FileTreeIterator(Path start, java.io.FileFilter filter, 
+            java.io.FileFilter descendFilter, int depth, 
+            WalkOption... options){
+        this.start = Objects.requireNonNull(start);
+        this.filter = filter;
+        this.descendFilter = descendFilter;
+        this.depth = depth;
+        attrType = WalkSupport.getAttributeType(start.getFileSystem());
+        visitedDirs = WalkSupport.getKeySet(WalkOption.DETECT_CYCLES,false,
+                options);
+        visitedFiles = WalkSupport.getKeySet(WalkOption.COLLAPSE_HARD_LINKS,
+                false,options);
+        queue = (Arrays.asList(options).contains(WalkOption.BREADTH_FIRST)) ? 
+                new ArrayDeque<>() : null;
+    }
+    /**
+     * This constructs a FileTreeIterator that walks the file tree starting at
+     * the given path, using the given FileFilter and up until the given
+     * subfolder depth. Only the directories that are accepted by the filter 
+     * are descended into.
+     * @param start The file or folder to start at (cannot be null).
+     * @param filter The filter for the files, or null if no filter.
+     * @param depth The maximum subfolder depth, or negative if unlimited.
+     * @param options The options for how to walk the file tree.
+     * @see WalkOption
+     */
+    public FileTreeIterator(Path start, java.io.FileFilter filter, int depth,
+            WalkOption... options){
+        this(start,filter,filter,depth,options);
+    }
+    /**
+     * This constructs a FileTreeIterator that walks the entire file tree
+     * starting at the given path, using the given FileFilter.
+     * @param start The file or folder to start at (cannot be null).
+     * @param filter The filter for the files, or null if no filter.
+     */
+    public FileTreeIterator(Path start, java.io.FileFilter filter){
+        this(start,filter,-1);
+    }
+    /**
+     * This returns the FileFilter used to filter the files.
+     * @return The filter for the files, or null if there is no filter.
+     */
+    public java.io.FileFilter getFileFilter(){
+        return filter;
+    }
+    /**
+     * This returns the FileFilter used to decide which directories to descend 
+     * into.
+     * @return The filter for the directories to descend into, or null if all 
+     * directories are descended into.
+     */
+    public java.io.FileFilter getDescendFilter(){
+        return descendFilter;
+    }
+    /**
+     * This returns the maximum subfolder depth that this will go to.
+     * @return The maximum subfolder depth, or negative if unlimited.
+     */
+    public int getMaximumDepth(){
+        return depth;
+    }
+    /**
+     * This returns the number of directories that have been opened for 
+     * listing so far.
+     * @return The number of directories that have been listed.
+     */
+    public long getDirectoryCount(){
+        return dirCount;
+    }
+    /**
+     * This returns the number of paths that have been checked against the 
+     * filters so far, including paths that were not accepted.
+     * @return The number of paths that have been checked.
+     */
+    public long getEntryCount(){
+        return entryCount;
+    }
+    /**
+     * This is called before each path is checked in order to determine 
+     * whether this should stop walking the file tree early. If this returns 
+     * true, then this iterator will be closed and will not return any more 
+     * paths. This can be overridden to implement cancellation and limits, and 
+     * by default always returns false.
+     * @return Whether to stop walking the file tree.
+     */
+    protected boolean isStopped(){
+        return false;
+    }
+    /**
+     * This is called when a path has been accepted, before it is returned. 
+     * This can be overridden to observe the accepted paths, and by default 
+     * does nothing.
+     * @param path The path that was accepted.
+     * @param attrs The attributes of the path, or null if they did not need 
+     * to be read.
+     */
+    protected void entryAccepted(Path path, BasicFileAttributes attrs){ }
+    /**
+     * This checks the given path, and then opens the path's listing if it is 
+     * a directory that is to be descended into.
+     * @param path The path to check.
+     * @param curDepth The subfolder depth of the path.
+     * @param filtered Whether the path is already known to be accepted by the 
+     * filter, since the directory listing was filtered.
+     * @return Whether the path was accepted.
+     */
+    private boolean visit(Path path, int curDepth, boolean filtered){
+        entryCount++;
+            // This gets the attributes of the path, if they have been read
+        BasicFileAttributes attrs = null;
+            // If the filter uses the attributes of the path
+        if (!filtered && WalkSupport.requiresAttributes(filter)){
+            attrs = WalkSupport.readAttributes(path, attrType);
+            if (attrs == null)  // If the path could not be read
+                return false;
+        }   // Whether the path is accepted
+        boolean accepted = filtered || WalkSupport.accept(filter, path, attrs);
+            // If the path is accepted and hard links are being collapsed
+        if (accepted && visitedFiles != null){
+            if (attrs == null)  // If the attributes have not been read yet
+                attrs = WalkSupport.readAttributes(path, attrType);
+                // If the path is a file that has already been returned
+            if (attrs != null && !attrs.isDirectory() && !visitedFiles.add(
+                    WalkSupport.getFileKey(path, attrs)))
+                return false;
+        }   // If the children of the path would be within the maximum depth, 
+            // and the directory filter is either not the file filter or the 
+        if ((depth < 0 || curDepth < depth) &&  // path was accepted
+                (descendFilter != filter || accepted)){
+            if (attrs == null)  // If the attributes have not been read yet
+                attrs = WalkSupport.readAttributes(path, attrType);
+                // If the path is a directory, is to be descended into, and has 
+                // not been visited yet
+            if (attrs != null && attrs.isDirectory() && 
+                    (descendFilter == filter || 
+                    WalkSupport.accept(descendFilter, path, attrs)) && 
+                    (visitedDirs == null || visitedDirs.add(
+                            WalkSupport.getFileKey(path, attrs)))){
+                if (queue != null)  // If the file tree is walked breadth-first
+                    queue.add(new PendingDirectory(path,curDepth+1));
+                else
+                    openListing(path,curDepth+1);
+            }
+        }
+        if (accepted)       // If the path was accepted
+            entryAccepted(path,attrs);
+        return accepted;
+    }
+    /**
+     * This opens a listing of the given directory and pushes it onto the 
+     * stack. If the file filter is a {@code FileWildcard} and the entries it 
+     * rejects would not be used, then the wildcard is given to the file 
+     * system so that the listing only contains matching entries. Directories 
+     * that cannot be read are skipped.
+     * @param dir The directory to list.
+     * @param curDepth The subfolder depth of the directory's contents.
+     */
+    private void openListing(Path dir, int curDepth){
+        try{
+            stack.push(new DirectoryListing(dir,curDepth,
+                    WalkSupport.getListingGlob(filter,descendFilter,depth,dir,
+                            curDepth)));
+            dirCount++;
+        }   // Unreadable directories are skipped, much like when File's 
+            // listFiles method returns null
+        catch (IOException | SecurityException ex) { }
+    }
+    /**
+     * This finds the next accepted path in the file tree, if there is one.
+     * @return The next accepted path, or null if the end of the file tree
+     * has been reached.
+     */
+    private Path findNext(){
+        if (isStopped())        // If this should stop walking the file tree
+            return null;
+        if (start != null){     // If the starting path has not been checked
+            Path path = start;
+            start = null;
+                // If the starting path is accepted
+            if (visit(path,0,false))
+                return path;
+        }
+            // While there are listings still open
+        while (!isStopped()){
+            if (stack.isEmpty()){   // If there are no listings open
+                    // If there are no directories waiting to be listed
+                if (queue == null || queue.isEmpty())
+                    break;
+                PendingDirectory dir = queue.poll();
+                openListing(dir.path,dir.depth);
+                continue;
+            }
+            DirectoryListing listing = stack.peek();
+            Path path;
+            try{    // If the current directory has no more entries
+                if (!listing.iterator.hasNext()){
+                    stack.pop().close();
+                    continue;
+                }
+                path = listing.iterator.next();
+            }   // If an error occurred while reading the directory
+            catch (DirectoryIteratorException ex){
+                stack.pop().close();
+                continue;
+            }
+                // If the path is accepted
+            if (visit(path,listing.depth,listing.filtered))
+                return path;
+        }
+        return null;
+    }
+    @Override
+    public boolean hasNext() {
+        if (next == null && !closed){   // If the next path needs to be found
+            next = findNext();
+            if (next == null)   // If the end of the file tree was reached
+                close();
+        }
+        return next != null;
+    }
+    @Override
+    public Path next() {
+        if (!hasNext())     // If there are no more paths
+            throw new NoSuchElementException();
+        Path path = next;
+        next = null;
+        return path;
+    }
+    /**
+     * This closes any directory listings that are still open. Once closed,
+     * this iterator will not return any more paths.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        start = next = null;
+        while (!stack.isEmpty())    // While there are listings still open
+            stack.pop().close();
+        if (queue != null)  // If there are directories waiting to be listed
+            queue.clear();
+    }
+    /**
+     * This returns a sequential Stream that is backed by this iterator.
+     * Closing the returned stream will close this iterator.
+     * @return A Stream of the paths returned by this iterator.
+     */
+    public Stream<Path> stream(){
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                Spliterator.NONNULL), false).onClose(this::close);
+    }
+    /**
+     * This is a directory that is waiting to be listed when walking the file 
+     * tree breadth-first, along with the subfolder depth of its contents.
+     */
+    private static class PendingDirectory{
+        /**
+         * The directory to list.
+         */
+        final Path path;
+        /**
+         * The subfolder depth of the contents of the directory.
+         */
+        final int depth;
+        /**
+         * This constructs a PendingDirectory for the given directory.
+         * @param path The directory to list.
+         * @param depth The subfolder depth of the directory's contents.
+         */
+        PendingDirectory(Path path, int depth){
+            this.path = path;
+            this.depth = depth;
+        }
+    }
+    /**
+     * This is an open listing of a directory, along with the subfolder depth
+     * of the directory's contents.
+     */
+    private static class DirectoryListing implements Closeable{
+        /**
+         * The open stream for the directory.
+         */
+        final DirectoryStream<Path> stream;
+        /**
+         * The iterator for the directory's stream.
+         */
+        final Iterator<Path> iterator;
+        /**
+         * The subfolder depth of the contents of the directory.
+         */
+        final int depth;
+        /**
+         * Whether the contents of the directory were filtered by the file 
+         * system using the file filter's glob pattern.
+         */
+        final boolean filtered;
+        /**
+         * This opens a listing of the given directory.
+         * @param dir The directory to list.
+         * @param depth The subfolder depth of the directory's contents.
+         * @param glob The glob pattern to filter the contents with, or null.
+         * @throws IOException If an I/O error occurs while opening the
+         * directory.
+         */
+        DirectoryListing(Path dir, int depth, String glob) throws IOException{
+            stream = WalkSupport.newDirectoryStream(dir, glob);
+            iterator = stream.iterator();
+            this.depth = depth;
+            filtered = glob != null;
+        }
+        @Override
+        public void close() {
+            try{
+                stream.close();
+            }
+            catch (IOException ex) { }
+        }
+    }
+}
@@ -0,0 +1,428 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package files.walk;
+
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * This is a handle for walking a file tree that can be cancelled, limited to
+ * a maximum amount of time or number of matching files, and observed while it
+ * is running. The file tree is walked by a {@link FileTreeIterator} using the
+ * given filters, depth, and options, on the thread that calls {@link
+ * #run(Consumer) run}. The walk checks whether it should stop before each
+ * path is checked, so it stops promptly even when the filters reject most of
+ * the files. When the walk stops early, the files that were found up until
+ * then are still returned, and {@link #getStopReason() getStopReason} reports
+ * why it stopped. <p>
+ *
+ * While the walk is running, {@link #cancel() cancel} can be called from any
+ * thread, and the number of directories listed, files matched, and bytes in
+ * the matched files can be read from any thread. A {@link ProgressListener}
+ * can also be set to be notified periodically on the walking thread. <p>
+ *
+ * A FileWalkHandle can only be run once.
+ * @author Mosblinker
+ * @see FileTreeIterator
+ */
+public class FileWalkHandle {
+    /**
+     * The file or folder to start at.
+     */
+    private final Path start;
+    /**
+     * The filter for the files, or null if no filter.
+     */
+    private final java.io.FileFilter filter;
+    /**
+     * The filter for the directories to descend into, or null if all
+     * directories are descended into.
+     */
+    private final java.io.FileFilter descendFilter;
+    /**
+     * The maximum subfolder depth, or negative if unlimited.
+     */
+    private final int depth;
+    /**
+     * The options for how to walk the file tree.
+     */
+    private final WalkOption[] options;
+    /**
+     * The maximum amount of time the walk can take, or null if unlimited.
+     */
+    private Duration timeLimit = null;
+    /**
+     * The maximum number of files to match, or negative if unlimited.
+     */
+    private long maxCount = -1;
+    /**
+     * The listener to notify of the progress of the walk, or null.
+     */
+    private ProgressListener listener = null;
+    /**
+     * The minimum amount of time between progress updates, in nanoseconds.
+     */
+    private long progressInterval = 0;
+    /**
+     * Whether this has been started.
+     */
+    private boolean started = false;
+    /**
+     * Whether this has been cancelled.
+     */
+    private volatile boolean cancelled = false;
+    /**
+     * The reason the walk stopped, or null if it has not stopped.
+     */
+    private volatile StopReason stopReason = null;
+    /**
+     * The number of directories that have been listed.
+     */
+    private volatile long dirCount = 0;
+    /**
+     * The number of files that have been matched.
+     */
+    private volatile long matchCount = 0;
+    /**
+     * The total size of the matched files, in bytes.
+     */
+    private volatile long byteCount = 0;
+    /**
+     * This constructs a FileWalkHandle that will walk the file tree starting
+     * at the given path, returning the files accepted by the given FileFilter
+     * and descending into the directories accepted by the given directory
+     * filter, up until the given subfolder depth.
+     * @param start The file or folder to start at (cannot be null).
+     * @param filter The filter for the files to return, or null if all files
+     * are to be returned.
+     * @param descendFilter The filter for the directories to descend into, or
+     * null if all directories are to be descended into.
+     * @param depth The maximum subfolder depth, or negative if unlimited.
+     * @param options The options for how to walk the file tree.
+     * @see FileTreeIterator#FileTreeIterator(Path, java.io.FileFilter,
+     * java.io.FileFilter, int, WalkOption...)
+     */
+    public FileWalkHandle(Path start, java.io.FileFilter filter,
+            java.io.FileFilter descendFilter, int depth,
+            WalkOption... options){
+        this.start = Objects.requireNonNull(start);
+        this.filter = filter;
+        this.descendFilter = descendFilter;
+        this.depth = depth;
+        this.options = options.clone();
+    }
+    /**
+     * This constructs a FileWalkHandle that will walk the file tree starting
+     * at the given path, using the given FileFilter and up until the given
+     * subfolder depth. Only the directories that are accepted by the filter
+     * are descended into.
+     * @param start The file or folder to start at (cannot be null).
+     * @param filter The filter for the files, or null if no filter.
+     * @param depth The maximum subfolder depth, or negative if unlimited.
+     * @param options The options for how to walk the file tree.
+     */
+    public FileWalkHandle(Path start, java.io.FileFilter filter, int depth,
+            WalkOption... options){
+        this(start,filter,filter,depth,options);
+    }
+    /**
+     * This sets the maximum amount of time that the walk can take, measured
+     * from when it is started. Once the time limit has been reached, the walk
+     * will stop and return the files found so far.
+     * @param timeLimit The maximum amount of time the walk can take, or null
+     * if there is no limit.
+     * @throws IllegalStateException If the walk has already been started.
+     */
+    public synchronized void setTimeLimit(Duration timeLimit){
+        checkNotStarted();
+        this.timeLimit = timeLimit;
+    }
+    /**
+     * This returns the maximum amount of time that the walk can take.
+     * @return The time limit, or null if there is no limit.
+     */
+    public synchronized Duration getTimeLimit(){
+        return timeLimit;
+    }
+    /**
+     * This sets the maximum number of files to match. Once this many files
+     * have been matched, the walk will stop. A negative value will result in
+     * no limit to how many files can be matched.
+     * @param maxCount The maximum number of files to match.
+     * @throws IllegalStateException If the walk has already been started.
+     */
+    public synchronized void setMaximumCount(long maxCount){
+        checkNotStarted();
+        this.maxCount = maxCount;
+    }
+    /**
+     * This returns the maximum number of files to match. A negative value
+     * indicates that there is no limit.
+     * @return The maximum number of files to match.
+     */
+    public synchronized long getMaximumCount(){
+        return maxCount;
+    }
+    /**
+     * This sets the listener to notify of the progress of the walk, and how
+     * often to notify it. The listener is called on the thread walking the
+     * file tree, no more often than the given interval, and once more when
+     * the walk stops.
+     * @param listener The listener to notify, or null to not be notified.
+     * @param interval The minimum amount of time between updates, or null to
+     * be notified as often as possible.
+     * @throws IllegalStateException If the walk has already been started.
+     */
+    public synchronized void setProgressListener(ProgressListener listener,
+            Duration interval){
+        checkNotStarted();
+        this.listener = listener;
+        progressInterval = (interval != null) ? interval.toNanos() : 0;
+    }
+    /**
+     * This throws an exception if the walk has already been started.
+     * @throws IllegalStateException If the walk has already been started.
+     */
+    private void checkNotStarted(){
+        if (started)    // If the walk has already been started
+            throw new IllegalStateException("Walk has already been started");
+    }
+    /**
+     * This requests that the walk stop as soon as possible. This can be called
+     * from any thread, and can be called before the walk has been started.
+     */
+    public void cancel(){
+        cancelled = true;
+    }
+    /**
+     * This returns whether this has been cancelled.
+     * @return Whether {@link #cancel() cancel} has been called.
+     */
+    public boolean isCancelled(){
+        return cancelled;
+    }
+    /**
+     * This returns whether the walk has stopped, either because it finished or
+     * because it was stopped early.
+     * @return Whether the walk has stopped.
+     */
+    public boolean isDone(){
+        return stopReason != null;
+    }
+    /**
+     * This returns the reason why the walk stopped.
+     * @return The reason the walk stopped, or null if it has not stopped yet.
+     */
+    public StopReason getStopReason(){
+        return stopReason;
+    }
+    /**
+     * This returns the number of directories that have been listed so far.
+     * @return The number of directories visited.
+     */
+    public long getDirectoryCount(){
+        return dirCount;
+    }
+    /**
+     * This returns the number of files that have been matched so far.
+     * @return The number of files matched.
+     */
+    public long getMatchCount(){
+        return matchCount;
+    }
+    /**
+     * This returns the total size of the normal files that have been matched
+     * so far, in bytes. The size of each matched file is taken from the 
+     * attributes that were read while walking the file tree, if any. The 
+     * attributes of a matched file are only read again if the walk did not 
+     * need them, such as for a file at the maximum depth that was matched by 
+     * a filter that only looks at its name.
+     * @return The number of bytes in the matched files.
+     */
+    public long getByteCount(){
+        return byteCount;
+    }
+    /**
+     * This walks the file tree, passing each matched path to the given
+     * Consumer, until either the entire file tree has been walked or the walk
+     * is stopped early.
+     * @param consumer The Consumer to pass the matched paths to (cannot be
+     * null).
+     * @return The reason the walk stopped.
+     * @throws IllegalStateException If the walk has already been started.
+     */
+    public StopReason run(Consumer<? super Path> consumer){
+        Objects.requireNonNull(consumer);
+        final ProgressListener progress;
+        final long interval;
+        final long count;
+        final long deadline;
+        synchronized (this){
+            checkNotStarted();
+            started = true;
+            progress = listener;
+            interval = progressInterval;
+            count = maxCount;
+                // Get the time at which the walk should stop
+            deadline = (timeLimit != null) ? System.nanoTime() +
+                    timeLimit.toNanos() : 0;
+        }   // This is the reason the walk stopped
+        StopReason reason = StopReason.COMPLETED;
+            // This is the iterator used to walk the file tree
+        WalkIterator itr = new WalkIterator(progress,interval,
+                (timeLimit != null),deadline);
+        try (itr){
+            while (count < 0 || matchCount < count){
+                if (!itr.hasNext()){    // If there are no more files
+                    reason = itr.reason;
+                    break;
+                }
+                Path path = itr.next();
+                matchCount++;
+                consumer.accept(path);
+            }   // If the walk ended because of the maximum count
+            if (count >= 0 && matchCount >= count)
+                reason = StopReason.MAXIMUM_COUNT_REACHED;
+        }
+        finally{
+            dirCount = itr.getDirectoryCount();
+            stopReason = reason;
+        }
+        if (progress != null)   // If there is a listener to notify
+            progress.progressUpdated(this);
+        return reason;
+    }
+    /**
+     * This walks the file tree and returns the matched paths, either for the
+     * entire file tree or for the part of the file tree that was walked before
+     * the walk was stopped early.
+     * @return A list of the matched paths.
+     * @throws IllegalStateException If the walk has already been started.
+     * @see #run(Consumer)
+     * @see #getStopReason()
+     */
+    public List<Path> run(){
+            // This gets the list of paths
+        List<Path> paths = new ArrayList<>();
+        run(paths::add);
+        return paths;
+    }
+    /**
+     * This is the reason that a walk stopped.
+     */
+    public static enum StopReason{
+        /**
+         * This indicates that the entire file tree was walked.
+         */
+        COMPLETED,
+        /**
+         * This indicates that the walk was cancelled.
+         */
+        CANCELLED,
+        /**
+         * This indicates that the walk reached its time limit.
+         */
+        TIME_LIMIT_REACHED,
+        /**
+         * This indicates that the walk matched the maximum number of files.
+         */
+        MAXIMUM_COUNT_REACHED
+    }
+    /**
+     * This is a listener that is notified of the progress of a walk.
+     */
+    @FunctionalInterface
+    public static interface ProgressListener{
+        /**
+         * This is called periodically while the walk is running, and once
+         * more when the walk stops.
+         * @param handle The handle for the walk.
+         */
+        public void progressUpdated(FileWalkHandle handle);
+    }
+    /**
+     * This is the FileTreeIterator used to walk the file tree, which checks
+     * whether the walk should stop and counts the bytes in the matched files.
+     */
+    private class WalkIterator extends FileTreeIterator{
+        /**
+         * The listener to notify of the progress of the walk, or null.
+         */
+        private final ProgressListener progress;
+        /**
+         * The minimum amount of time between progress updates.
+         */
+        private final long interval;
+        /**
+         * Whether there is a time limit.
+         */
+        private final boolean timed;
+        /**
+         * The time at which the walk should stop if there is a time limit.
+         */
+        private final long deadline;
+        /**
+         * The time at which the next progress update should occur.
+         */
+        private long nextUpdate;
+        /**
+         * The reason the walk stopped.
+         */
+        StopReason reason = StopReason.COMPLETED;
+        /**
+         * This constructs a WalkIterator.
+         * @param progress The listener to notify, or null.
+         * @param interval The minimum amount of time between updates.
+         * @param timed Whether there is a time limit.
+         * @param deadline The time at which the walk should stop.
+         */
+        WalkIterator(ProgressListener progress, long interval, boolean timed,
+                long deadline){
+            super(start,filter,descendFilter,depth,options);
+            this.progress = progress;
+            this.interval = interval;
+            this.timed = timed;
+            this.deadline = deadline;
+            nextUpdate = System.nanoTime();
+        }
+        @Override
+        protected boolean isStopped(){
+            dirCount = getDirectoryCount();
+            if (cancelled){     // If the walk has been cancelled
+                reason = StopReason.CANCELLED;
+                return true;
+            }   // If there is a listener or a time limit
+            if (progress == null && !timed)
+                return false;
+            long now = System.nanoTime();
+                // If the time limit has been reached
+            if (timed && now - deadline >= 0){
+                reason = StopReason.TIME_LIMIT_REACHED;
+                return true;
+            }   // If it is time to notify the listener
+            if (progress != null && now - nextUpdate >= 0){
+                progress.progressUpdated(FileWalkHandle.this);
+                nextUpdate = System.nanoTime() + interval;
+            }
+            return false;
+        }
+        @Override
+        protected void entryAccepted(Path path, BasicFileAttributes attrs){
+            dirCount = getDirectoryCount();
+                // If the walk did not need the attributes of this path. 
+                // Otherwise, the attributes already read by the walk are used, 
+                // so that the file is not read again just to count its size
+            if (attrs == null)
+                attrs = WalkSupport.readAttributes(path,
+                        BasicFileAttributes.class);
+                // If the path is a normal file
+            if (attrs != null && attrs.isRegularFile())
+                byteCount += attrs.size();
+        }
+    }
+}
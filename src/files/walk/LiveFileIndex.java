@@ -0,0 +1,427 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package files.walk;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * This is an in-memory index of the files in a folder that is kept up to date
+ * using a {@link WatchService}. When constructed, this scans the folder once
+ * using the same filter and depth rules as {@link
+ * files.FilesExtended#getFilesFromFolder(java.io.File, java.io.FileFilter,
+ * int) FilesExtended.getFilesFromFolder}, and registers each directory that it
+ * descends into with a WatchService. After that, the index is updated as the
+ * file system reports changes: new subdirectories are scanned and registered,
+ * deleted directories are removed along with their contents, and modified
+ * files are checked against the filter again. If the WatchService reports
+ * that events were lost for a directory, then that directory is rescanned.
+ * <p>
+ *
+ * Queries against the index, such as {@link #contains(Path) contains} and
+ * {@link #getPaths() getPaths}, only look at the index and do not access the
+ * file system. Events can either be processed by a background thread started
+ * by {@link #start() start}, or by calling {@link #processEvents()
+ * processEvents} periodically. Note that changes are only reflected once the
+ * file system has reported them, which may be delayed depending on the
+ * platform. <p>
+ *
+ * A LiveFileIndex should be closed once it is no longer needed in order to
+ * release the WatchService.
+ * @author Mosblinker
+ */
+public class LiveFileIndex implements Closeable{
+    /**
+     * The folder being indexed.
+     */
+    private final Path root;
+    /**
+     * The filter for the files, or null if all files are accepted.
+     */
+    private final java.io.FileFilter filter;
+    /**
+     * The maximum subfolder depth, or negative if unlimited.
+     */
+    private final int depth;
+    /**
+     * The type of file attributes to read for the files.
+     */
+    private final Class<? extends BasicFileAttributes> attrType;
+    /**
+     * The WatchService used to watch the directories.
+     */
+    private final WatchService watcher;
+    /**
+     * This maps the directories that are being watched to their contents.
+     */
+    private final Map<Path, WatchedDirectory> dirs = new ConcurrentHashMap<>();
+    /**
+     * This maps the WatchKeys to the directories they are for.
+     */
+    private final Map<WatchKey, Path> keys = new ConcurrentHashMap<>();
+    /**
+     * The file keys of the directories that are being watched, used to
+     * prevent symbolic links from causing a directory to be watched twice.
+     */
+    private final Set<Object> fileKeys = ConcurrentHashMap.newKeySet();
+    /**
+     * Whether the root folder itself is accepted by the filter.
+     */
+    private volatile boolean rootAccepted = false;
+    /**
+     * The thread processing events, or null if there is none.
+     */
+    private Thread thread = null;
+    /**
+     * This constructs a LiveFileIndex for the given folder, using the given
+     * FileFilter and up until the given subfolder depth. This scans the folder
+     * before returning.
+     * @param root The folder to index (cannot be null).
+     * @param filter The filter for the files, or null if no filter.
+     * @param depth The maximum subfolder depth, or negative if unlimited.
+     * @throws IOException If an I/O error occurs while creating the
+     * WatchService.
+     * @throws UnsupportedOperationException If the file system of the folder
+     * does not support watching for changes.
+     */
+    public LiveFileIndex(Path root, java.io.FileFilter filter, int depth)
+            throws IOException{
+        this.root = Objects.requireNonNull(root);
+        this.filter = filter;
+        this.depth = depth;
+        attrType = WalkSupport.getAttributeType(root.getFileSystem());
+        watcher = root.getFileSystem().newWatchService();
+            // Get the attributes of the root folder
+        BasicFileAttributes attrs = WalkSupport.readAttributes(root, attrType);
+            // If the root folder is accepted
+        if (attrs != null && WalkSupport.accept(filter, root, attrs)){
+            rootAccepted = true;
+            if (depth != 0 && attrs.isDirectory())
+                scan(root,attrs);
+        }
+    }
+    /**
+     * This constructs a LiveFileIndex for the entire file tree of the given
+     * folder, using the given FileFilter. This scans the folder before
+     * returning.
+     * @param root The folder to index (cannot be null).
+     * @param filter The filter for the files, or null if no filter.
+     * @throws IOException If an I/O error occurs while creating the
+     * WatchService.
+     * @throws UnsupportedOperationException If the file system of the folder
+     * does not support watching for changes.
+     */
+    public LiveFileIndex(Path root, java.io.FileFilter filter)
+            throws IOException{
+        this(root,filter,-1);
+    }
+    /**
+     * This returns the folder being indexed.
+     * @return The root folder.
+     */
+    public Path getRoot(){
+        return root;
+    }
+    /**
+     * This returns whether the given path is currently in the index. This
+     * does not access the file system.
+     * @param path The path to check for.
+     * @return Whether the path is in the index.
+     */
+    public boolean contains(Path path){
+        if (path.equals(root))  // If the path is the root folder
+            return rootAccepted;
+            // Get the directory containing the path
+        WatchedDirectory dir = (path.getParent() != null) ?
+                dirs.get(path.getParent()) : null;
+        return dir != null && dir.children.contains(path);
+    }
+    /**
+     * This returns the paths that are currently in the index. This does not
+     * access the file system.
+     * @return A list of the paths in the index.
+     */
+    public List<Path> getPaths(){
+            // This gets the list of paths
+        List<Path> paths = new ArrayList<>();
+        if (rootAccepted)   // If the root folder is accepted
+            paths.add(root);
+        for (WatchedDirectory dir : dirs.values())
+            paths.addAll(dir.children);
+        return paths;
+    }
+    /**
+     * This returns the number of paths that are currently in the index. This
+     * does not access the file system.
+     * @return The number of paths in the index.
+     */
+    public int size(){
+        int size = (rootAccepted) ? 1 : 0;
+        for (WatchedDirectory dir : dirs.values())
+            size += dir.children.size();
+        return size;
+    }
+    /**
+     * This returns whether the given directory's contents are within the
+     * maximum subfolder depth.
+     * @param dir The directory to check.
+     * @return Whether the directory's contents are to be indexed.
+     */
+    private boolean isWithinDepth(Path dir){
+        return depth < 0 || dir.getNameCount()-root.getNameCount() < depth;
+    }
+    /**
+     * This checks the given path and adds it to the index if it is accepted.
+     * If the path is an accepted directory whose contents are within the
+     * maximum depth, then it will be returned so that it can be scanned.
+     * @param dir The watched directory containing the path.
+     * @param path The path to check.
+     * @return The attributes of the path if it is a directory to scan, or
+     * null otherwise.
+     */
+    private BasicFileAttributes visit(WatchedDirectory dir, Path path){
+            // Get the attributes of the path
+        BasicFileAttributes attrs = WalkSupport.readAttributes(path, attrType);
+            // If the path could not be read or is not accepted
+        if (attrs == null || !WalkSupport.accept(filter, path, attrs)){
+            remove(dir,path);
+            return null;
+        }
+        dir.children.add(path);
+            // If the path is a directory whose contents are to be indexed
+        if (attrs.isDirectory() && isWithinDepth(path))
+            return attrs;
+        return null;
+    }
+    /**
+     * This scans the given directory and its accepted subdirectories, adding
+     * their accepted contents to the index and registering them with the
+     * WatchService.
+     * @param start The directory to scan.
+     * @param startAttrs The attributes of the directory.
+     */
+    private void scan(Path start, BasicFileAttributes startAttrs){
+            // This is a stack of the directories to scan
+        Deque<Path> stack = new ArrayDeque<>();
+            // This is a stack of the attributes of the directories to scan
+        Deque<BasicFileAttributes> attrStack = new ArrayDeque<>();
+        stack.push(start);
+        attrStack.push(startAttrs);
+        while (!stack.isEmpty()){   // While there are directories to scan
+            Path path = stack.pop();
+                // Register the directory with the watcher
+            WatchedDirectory dir = register(path,attrStack.pop());
+            if (dir == null)        // If the directory could not be watched
+                continue;
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)){
+                for (Path child : stream){  // Go through the directory
+                        // Check the child and get its attributes if it is a
+                        // directory to scan
+                    BasicFileAttributes attrs = visit(dir,child);
+                    if (attrs != null){ // If this is a directory to scan
+                        stack.push(child);
+                        attrStack.push(attrs);
+                    }
+                }
+            }   // Unreadable directories are skipped
+            catch (IOException | DirectoryIteratorException |
+                    SecurityException ex) { }
+        }
+    }
+    /**
+     * This registers the given directory with the WatchService if it is not
+     * already being watched.
+     * @param path The directory to register.
+     * @param attrs The attributes of the directory.
+     * @return The watched directory, or null if it is already being watched
+     * through another path or could not be registered.
+     */
+    private WatchedDirectory register(Path path, BasicFileAttributes attrs){
+            // Get the existing watched directory
+        WatchedDirectory dir = dirs.get(path);
+        if (dir != null)    // If the directory is already being watched
+            return dir;
+            // Get the file key of the directory
+        Object fileKey = WalkSupport.getFileKey(path, attrs);
+            // If the directory is already being watched through another path
+        if (!fileKeys.add(fileKey))
+            return null;
+        try{
+            WatchKey key = path.register(watcher,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            dir = new WatchedDirectory(key,fileKey);
+            keys.put(key, path);
+            dirs.put(path, dir);
+            return dir;
+        }
+        catch (IOException | ClosedWatchServiceException |
+                SecurityException ex){
+            fileKeys.remove(fileKey);
+            return null;
+        }
+    }
+    /**
+     * This removes the given path from the index, along with the contents of
+     * the path if it is a watched directory.
+     * @param parent The watched directory containing the path, or null.
+     * @param path The path to remove.
+     */
+    private void remove(WatchedDirectory parent, Path path){
+        if (parent != null)     // If the parent is known
+            parent.children.remove(path);
+            // This is a stack of the directories to remove
+        Deque<Path> stack = new ArrayDeque<>();
+        stack.push(path);
+        while (!stack.isEmpty()){   // While there are directories to remove
+                // Stop watching the directory
+            WatchedDirectory dir = dirs.remove(stack.pop());
+            if (dir == null)        // If the path was not being watched
+                continue;
+            dir.key.cancel();
+            keys.remove(dir.key);
+            fileKeys.remove(dir.fileKey);
+            stack.addAll(dir.children);
+        }
+    }
+    /**
+     * This rescans the given watched directory, such as after events for the
+     * directory have been lost. The contents of the directory that no longer
+     * exist are removed, and the rest are checked again.
+     * @param path The directory to rescan.
+     */
+    private void rescan(Path path){
+            // Get the watched directory
+        WatchedDirectory dir = dirs.get(path);
+        if (dir == null)        // If the directory is not being watched
+            return;
+            // This gets the current contents of the directory
+        Set<Path> current = new HashSet<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)){
+            for (Path child : stream)
+                current.add(child);
+        }   // If the directory can no longer be read
+        catch (IOException | DirectoryIteratorException |
+                SecurityException ex) { }
+            // Go through the indexed contents of the directory
+        for (Path child : new ArrayList<>(dir.children)){
+            if (!current.contains(child))   // If the child no longer exists
+                remove(dir,child);
+        }
+        for (Path child : current)  // Go through the current contents
+            update(dir,child);
+    }
+    /**
+     * This checks the given path in the given watched directory again,
+     * updating the index and scanning the path if it is a new directory.
+     * @param dir The watched directory containing the path.
+     * @param path The path to update.
+     */
+    private void update(WatchedDirectory dir, Path path){
+            // Check the path and get its attributes if it is a directory
+        BasicFileAttributes attrs = visit(dir,path);
+            // If the path is a directory that is not being watched yet
+        if (attrs != null && !dirs.containsKey(path))
+            scan(path,attrs);
+    }
+    /**
+     * This processes the events for the given WatchKey.
+     * @param key The WatchKey that was signalled.
+     */
+    private void processKey(WatchKey key){
+            // Get the directory for the key
+        Path path = keys.get(key);
+            // Get the watched directory
+        WatchedDirectory dir = (path != null) ? dirs.get(path) : null;
+        if (dir == null){       // If the directory is no longer being watched
+            key.cancel();
+            return;
+        }   // Go through the events for the key
+        for (WatchEvent<?> event : key.pollEvents()){
+                // If events have been lost
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW){
+                rescan(path);
+                continue;
+            }
+            Path child = path.resolve((Path)event.context());
+                // If the child was deleted
+            if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE)
+                remove(dir,child);
+            else
+                update(dir,child);
+        }
+        if (!key.reset())       // If the directory is no longer accessible
+            remove(null,path);
+    }
+    /**
+     * This processes any events that are currently pending without waiting
+     * for more events. This can be used instead of {@link #start() start} to
+     * update the index on the caller's thread.
+     * @throws ClosedWatchServiceException If this has been closed.
+     */
+    public void processEvents(){
+        WatchKey key;
+        while ((key = watcher.poll()) != null)
+            processKey(key);
+    }
+    /**
+     * This starts a daemon thread that updates the index as events occur. The
+     * thread stops when this is closed. If the thread has already been
+     * started, then this does nothing.
+     */
+    public synchronized void start(){
+        if (thread != null)     // If the thread has already been started
+            return;
+        thread = new Thread(() -> {
+            try{
+                while (true)    // Process events until closed
+                    processKey(watcher.take());
+            }
+            catch (ClosedWatchServiceException | InterruptedException ex){ }
+        },"LiveFileIndex-"+root);
+        thread.setDaemon(true);
+        thread.start();
+    }
+    /**
+     * This closes the WatchService, which stops the index from being updated
+     * and stops the thread processing events if there is one.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        watcher.close();
+    }
+    /**
+     * This is a directory that is being watched, along with its indexed
+     * contents.
+     */
+    private static class WatchedDirectory{
+        /**
+         * The WatchKey for the directory.
+         */
+        final WatchKey key;
+        /**
+         * The file key of the directory.
+         */
+        final Object fileKey;
+        /**
+         * The paths of the accepted contents of the directory.
+         */
+        final Set<Path> children = ConcurrentHashMap.newKeySet();
+        /**
+         * This constructs a WatchedDirectory.
+         * @param key The WatchKey for the directory.
+         * @param fileKey The file key of the directory.
+         */
+        WatchedDirectory(WatchKey key, Object fileKey){
+            this.key = key;
+            this.fileKey = fileKey;
+        }
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package files.walk;
+
+import files.filters.AttributeFileFilter;
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * This walks a file tree in parallel using a {@code ForkJoinPool}, adding the
+ * paths of the files that are accepted by a FileFilter to a concurrent
+ * collection or passing them to a thread-safe Consumer. This uses the same
+ * filter and depth rules as {@link FileTreeIterator}, but each accepted
+ * subdirectory is listed and filtered in its own task, allowing wide file
+ * trees to be scanned by multiple threads at once. As such, the order in
+ * which the files are added is not defined. Like with {@code
+ * FileTreeIterator}, the attributes of each file are read at most once and
+ * are given to filters that are {@link AttributeFileFilter
+ * AttributeFileFilters}. <p>
+ *
+ * A ParallelFileWalker that was constructed with a parallelism level creates
+ * and owns its own pool, which is shut down when this is closed. A
+ * ParallelFileWalker that was given a pool will not shut it down.
+ * @author Mosblinker
+ * @see FileTreeIterator
+ * @see files.FilesExtended#getFilesFromFolderParallel(java.io.File,
+ * java.io.FileFilter, int, int, WalkOption...)
+ */
+public class ParallelFileWalker implements AutoCloseable{
+    /**
+     * The pool used to run the tasks that walk the file tree.
+     */
+    private final ForkJoinPool pool;
+    /**
+     * Whether this owns the pool and should shut it down when closed.
+     */
+    private final boolean ownsPool;
+    /**
+     * This constructs a ParallelFileWalker that uses the given pool.
+     * @param pool The pool to use (cannot be null).
+     */
+    public ParallelFileWalker(ForkJoinPool pool){
+        this.pool = Objects.requireNonNull(pool);
+        ownsPool = false;
+    }
+    /**
+     * This constructs a ParallelFileWalker that uses a new pool with the given
+     * parallelism level.
+     * @param parallelism The number of threads to use to walk file trees.
+     * @throws IllegalArgumentException If the parallelism is less than or
+     * equal to zero.
+     */
+    public ParallelFileWalker(int parallelism){
+        pool = new ForkJoinPool(parallelism);
+        ownsPool = true;
+    }
+    /**
+     * This constructs a ParallelFileWalker that uses the common pool.
+     * @see ForkJoinPool#commonPool()
+     */
+    public ParallelFileWalker(){
+        this(ForkJoinPool.commonPool());
+    }
+    /**
+     * This returns the parallelism level of the pool used by this.
+     * @return The targeted number of threads used to walk file trees.
+     */
+    public int getParallelism(){
+        return pool.getParallelism();
+    }
+    /**
+     * This walks the file tree starting at the given path, adding the paths of
+     * the files that are accepted by the given FileFilter to the given
+     * collection and descending into the directories that are accepted by the 
+     * given directory filter, up until the given subfolder depth. This blocks 
+     * until the entire file tree has been walked. <p>
+     *
+     * The collection will have paths added to it by multiple threads, and so
+     * it must be safe for concurrent use, such as a {@code
+     * ConcurrentLinkedQueue}. The filters may likewise be called from multiple
+     * threads at once.
+     * @param <C> The type of collection to add to.
+     * @param start The file or folder to start at (cannot be null).
+     * @param filter The filter for the files to add, or null if all files are 
+     * to be added.
+     * @param descendFilter The filter for the directories to descend into, or 
+     * null if all directories are to be descended into.
+     * @param depth The maximum subfolder depth, or negative if unlimited.
+     * @param sink The concurrent collection to add the paths to (cannot be
+     * null).
+     * @param options The options for how to walk the file tree.
+     * @return The given collection after the found paths have been added.
+     * @see FileTreeIterator#FileTreeIterator(Path, java.io.FileFilter, 
+     * java.io.FileFilter, int, WalkOption...) 
+     * @see WalkOption
+     */
+    public <C extends Collection<? super Path>> C walk(Path start,
+            java.io.FileFilter filter, java.io.FileFilter descendFilter, 
+            int depth, C sink, WalkOption... options){
+        Objects.requireNonNull(sink);
+        forEach(start,filter,descendFilter,depth,sink::add,options);
+        return sink;
+    }
+    /**
+     * This walks the file tree starting at the given path, passing the paths 
+     * of the files that are accepted by the given FileFilter to the given 
+     * Consumer and descending into the directories that are accepted by the 
+     * given directory filter, up until the given subfolder depth. This blocks 
+     * until the entire file tree has been walked. <p>
+     *
+     * The Consumer will be called by multiple threads, possibly at the same 
+     * time, and so it must be safe for concurrent use. The filters may 
+     * likewise be called from multiple threads at once.
+     * @param start The file or folder to start at (cannot be null).
+     * @param filter The filter for the files to pass on, or null if all files 
+     * are to be passed on.
+     * @param descendFilter The filter for the directories to descend into, or 
+     * null if all directories are to be descended into.
+     * @param depth The maximum subfolder depth, or negative if unlimited.
+     * @param action The Consumer to pass the paths to (cannot be null).
+     * @param options The options for how to walk the file tree.
+     * @see BatchingConsumer
+     * @see WalkOption
+     */
+    public void forEach(Path start, java.io.FileFilter filter, 
+            java.io.FileFilter descendFilter, int depth, 
+            Consumer<? super Path> action, WalkOption... options){
+            // This is the shared state for the walk
+        Walk walk = new Walk(filter,descendFilter,depth,Objects.requireNonNull(
+                action),WalkSupport.getAttributeType(start.getFileSystem()),
+                options);
+            // If the starting path is a directory to descend into
+        if (walk.visit(start,0,false))
+            pool.invoke(new DirectoryTask(walk,start,1));
+    }
+    /**
+     * This walks the file tree starting at the given path, adding the paths of
+     * the files that are accepted by the given FileFilter to the given
+     * collection, up until the given subfolder depth. Only the directories 
+     * that are accepted by the filter are descended into. This blocks until 
+     * the entire file tree has been walked. <p>
+     *
+     * The collection will have paths added to it by multiple threads, and so
+     * it must be safe for concurrent use, such as a {@code
+     * ConcurrentLinkedQueue}. The filter may likewise be called from multiple
+     * threads at once.
+     * @param <C> The type of collection to add to.
+     * @param start The file or folder to start at (cannot be null).
+     * @param filter The filter for the files, or null if no filter.
+     * @param depth The maximum subfolder depth, or negative if unlimited.
+     * @param sink The concurrent collection to add the paths to (cannot be
+     * null).
+     * @param options The options for how to walk the file tree.
+     * @return The given collection after the found paths have been added.
+     * @see WalkOption
+     */
+    public <C extends Collection<? super Path>> C walk(Path start,
+            java.io.FileFilter filter, int depth, C sink, 
+            WalkOption... options){
+        return walk(start,filter,filter,depth,sink,options);
+    }
+    /**
+     * This walks the file tree starting at the given path and returns the
+     * paths of the files that are accepted by the given FileFilter, up until
+     * the given subfolder depth. This blocks until the entire file tree has
+     * been walked.
+     * @param start The file or folder to start at (cannot be null).
+     * @param filter The filter for the files, or null if no filter.
+     * @param depth The maximum subfolder depth, or negative if unlimited.
+     * @return A queue containing the paths of the files that have been found.
+     * @see #walk(Path, java.io.FileFilter, int, Collection)
+     */
+    public Queue<Path> walk(Path start, java.io.FileFilter filter, int depth){
+        return walk(start,filter,depth,new ConcurrentLinkedQueue<>());
+    }
+    /**
+     * This shuts down the pool used by this if this ParallelFileWalker created
+     * the pool.
+     */
+    @Override
+    public void close() {
+        if (ownsPool)   // If this created the pool
+            pool.shutdown();
+    }
+    /**
+     * This holds the filters, depth, and Consumer shared by all the tasks of 
+     * a single walk.
+     */
+    private static class Walk{
+        /**
+         * The filter for the files to add, or null if no filter.
+         */
+        final java.io.FileFilter filter;
+        /**
+         * The filter for the directories to descend into, or null if all 
+         * directories are descended into.
+         */
+        final java.io.FileFilter descendFilter;
+        /**
+         * The maximum subfolder depth, or negative if unlimited.
+         */
+        final int depth;
+        /**
+         * The Consumer to pass the accepted paths to.
+         */
+        final Consumer<? super Path> sink;
+        /**
+         * The type of file attributes to read for the files.
+         */
+        final Class<? extends BasicFileAttributes> attrType;
+        /**
+         * The file keys of the directories that have been descended into, or 
+         * null if cycles are not being detected.
+         */
+        final Set<Object> visitedDirs;
+        /**
+         * The file keys of the non-directory files that have been added, or 
+         * null if hard links are not being collapsed.
+         */
+        final Set<Object> visitedFiles;
+        /**
+         * This constructs a Walk with the given filters, depth, and Consumer.
+         * @param filter The filter for the files to add.
+         * @param descendFilter The filter for the directories to descend into.
+         * @param depth The maximum subfolder depth.
+         * @param sink The Consumer to pass the accepted paths to.
+         * @param attrType The type of file attributes to read.
+         * @param options The options for how to walk the file tree.
+         */
+        Walk(java.io.FileFilter filter, java.io.FileFilter descendFilter, 
+                int depth, Consumer<? super Path> sink,
+                Class<? extends BasicFileAttributes> attrType, 
+                WalkOption... options){
+            this.filter = filter;
+            this.descendFilter = descendFilter;
+            this.depth = depth;
+            this.sink = sink;
+            this.attrType = attrType;
+            visitedDirs = WalkSupport.getKeySet(WalkOption.DETECT_CYCLES,true,
+                    options);
+            visitedFiles = WalkSupport.getKeySet(WalkOption.COLLAPSE_HARD_LINKS,
+                    true,options);
+        }
+        /**
+         * This checks the given path and passes it to the Consumer if it is 
+         * accepted.
+         * @param path The path to check.
+         * @param curDepth The subfolder depth of the path.
+         * @param filtered Whether the path is already known to be accepted by 
+         * the filter, since the directory listing was filtered.
+         * @return Whether the path is a directory to descend into.
+         */
+        boolean visit(Path path, int curDepth, boolean filtered){
+                // This gets the attributes of the path, if they have been read
+            BasicFileAttributes attrs = null;
+                // If the filter uses the attributes of the path
+            if (!filtered && WalkSupport.requiresAttributes(filter)){
+                attrs = WalkSupport.readAttributes(path, attrType);
+                if (attrs == null)  // If the path could not be read
+                    return false;
+            }   // Whether the path is accepted
+            boolean accepted = filtered || 
+                    WalkSupport.accept(filter, path, attrs);
+                // If the path is accepted and hard links are being collapsed
+            if (accepted && visitedFiles != null){
+                if (attrs == null)  // If the attributes have not been read yet
+                    attrs = WalkSupport.readAttributes(path, attrType);
+                    // If the path is a file that has already been added
+                if (attrs != null && !attrs.isDirectory() && !visitedFiles.add(
+                        WalkSupport.getFileKey(path, attrs)))
+                    return false;
+            }
+            if (accepted)           // If the path is accepted
+                sink.accept(path);
+                // If the children of the path would be beyond the maximum 
+                // depth, or if the directory filter is the file filter and the 
+            if ((depth >= 0 && curDepth >= depth) ||    // path was not accepted
+                    (descendFilter == filter && !accepted))
+                return false;
+            if (attrs == null)  // If the attributes have not been read yet
+                attrs = WalkSupport.readAttributes(path, attrType);
+                // Return whether the path is a directory to descend into that 
+                // has not been visited yet
+            return attrs != null && attrs.isDirectory() && 
+                    (descendFilter == filter || 
+                    WalkSupport.accept(descendFilter, path, attrs)) && 
+                    (visitedDirs == null || visitedDirs.add(
+                            WalkSupport.getFileKey(path, attrs)));
+        }
+    }
+    /**
+     * This is a task that lists a directory, passes the accepted files in it 
+     * to the Consumer, and then forks a task for each subdirectory to descend 
+     * into.
+     */
+    private static class DirectoryTask extends RecursiveAction{
+        /**
+         * The serial version UID for this task. Tasks are never serialized, 
+         * as they refer to the walk they are a part of.
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * The walk that this task is a part of.
+         */
+        private final Walk walk;
+        /**
+         * The directory to list.
+         */
+        private final Path dir;
+        /**
+         * The subfolder depth of the contents of the directory.
+         */
+        private final int curDepth;
+        /**
+         * This constructs a DirectoryTask for the given directory.
+         * @param walk The walk that this task is a part of.
+         * @param dir The directory to list.
+         * @param curDepth The subfolder depth of the directory's contents.
+         */
+        DirectoryTask(Walk walk, Path dir, int curDepth){
+            this.walk = walk;
+            this.dir = dir;
+            this.curDepth = curDepth;
+        }
+        @Override
+        protected void compute() {
+                // This gets the tasks for the subdirectories
+            List<DirectoryTask> tasks = new ArrayList<>();
+                // This gets the glob pattern to filter the directory with, if 
+                // the file system can filter the directory's contents
+            String glob = WalkSupport.getListingGlob(walk.filter,
+                    walk.descendFilter,walk.depth,dir,curDepth);
+            try (DirectoryStream<Path> stream = 
+                    WalkSupport.newDirectoryStream(dir, glob)){
+                for (Path path : stream){   // Go through the directory
+                        // If the path is a directory to descend into
+                    if (walk.visit(path,curDepth,glob != null))
+                        tasks.add(new DirectoryTask(walk,path,curDepth+1));
+                }
+            }   // Unreadable directories are skipped
+            catch (IOException | DirectoryIteratorException |
+                    SecurityException ex) { }
+            invokeAll(tasks);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Enum.java to edit this template
+ */
+package files.walk;
+
+/**
+ * This contains the options that can be used to configure how a file tree is
+ * walked by a {@link FileTreeIterator} or a {@link ParallelFileWalker}.
+ * @author Mosblinker
+ */
+public enum WalkOption {
+    /**
+     * This keeps track of the directories that have been descended into using
+     * their {@link java.nio.file.attribute.BasicFileAttributes#fileKey() file
+     * keys}, and does not descend into a directory that has already been
+     * visited. This prevents symbolic links that point back up the file tree
+     * from causing the walk to loop, and prevents directories that can be
+     * reached through more than one path from being walked more than once.
+     * Directories that are skipped this way may still be returned if they are
+     * accepted. If the file system does not provide file keys, then the real
+     * paths of the directories are used instead.
+     */
+    DETECT_CYCLES,
+    /**
+     * This keeps track of the non-directory files that have been returned
+     * using their {@link java.nio.file.attribute.BasicFileAttributes#fileKey()
+     * file keys}, and does not return a file that refers to the same file as
+     * one that was already returned, such as a hard link to a file or a
+     * symbolic link to a file that has already been returned. This requires
+     * the attributes of every accepted file to be read.
+     */
+    COLLAPSE_HARD_LINKS,
+    /**
+     * This walks the file tree in breadth-first order, returning all the 
+     * accepted files at one subfolder depth before listing any of the 
+     * directories at the next depth. This allows files close to the starting 
+     * path to be found without first descending into deep subfolders, and 
+     * only keeps one directory open at a time. The directories that are still 
+     * waiting to be listed are held in memory, and so this may use more 
+     * memory than a depth-first walk for wide file trees. This option is only 
+     * supported by {@link FileTreeIterator}.
+     */
+    BREADTH_FIRST
+}
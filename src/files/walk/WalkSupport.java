@@ -0,0 +1,185 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package files.walk;
+
+import files.filters.AttributeFileFilter;
+import files.filters.FileFilters;
+import files.wildcard.FileWildcard;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This contains the functions shared by the file tree traversals for reading
+ * the attributes of files and applying filters to them.
+ * @author Mosblinker
+ */
+final class WalkSupport {
+    /**
+     * This returns the type of attributes that the traversals should read for
+     * files in the given file system. For file systems that use DOS attributes
+     * natively, such as on Microsoft Windows, this will be the DOS attributes,
+     * since they can be read at the same cost as the basic attributes and
+     * allow for checking whether a file is hidden without querying the file
+     * system again. Otherwise, this will be the basic attributes.
+     * @param fs The file system to get the attribute type for.
+     * @return The type of attributes to read.
+     * @see FileFilters#getAttributeType(FileSystem) 
+     */
+    static Class<? extends BasicFileAttributes> getAttributeType(FileSystem fs){
+        return FileFilters.getAttributeType(fs);
+    }
+    /**
+     * This reads the attributes of the file at the given path. Symbolic links
+     * are followed, unless the target of the link cannot be read, in which
+     * case the attributes of the link itself are returned.
+     * @param path The path of the file.
+     * @param type The type of attributes to read.
+     * @return The attributes of the file, or null if they could not be read.
+     */
+    static BasicFileAttributes readAttributes(Path path,
+            Class<? extends BasicFileAttributes> type){
+        try{
+            return Files.readAttributes(path, type);
+        }
+        catch (IOException | UnsupportedOperationException |
+                SecurityException ex){ }
+        try{    // Try to read the attributes of a broken symbolic link
+            return Files.readAttributes(path, BasicFileAttributes.class,
+                    LinkOption.NOFOLLOW_LINKS);
+        }
+        catch (IOException | SecurityException ex){
+            return null;
+        }
+    }
+    /**
+     * This returns whether the given filter accepts the given path. If the
+     * filter is an {@code AttributeFileFilter}, then it will be given the
+     * attributes as well.
+     * @param filter The filter to use, or null if all paths are accepted.
+     * @param path The path to check.
+     * @param attrs The attributes of the path, or null if the filter does not 
+     * require them.
+     * @return Whether the path is accepted.
+     */
+    static boolean accept(java.io.FileFilter filter, Path path,
+            BasicFileAttributes attrs){
+        if (filter == null)     // If there is no filter
+            return true;
+        else if (filter instanceof AttributeFileFilter)
+            return ((AttributeFileFilter)filter).accept(path, attrs);
+        return filter.accept(path.toFile());
+    }
+    /**
+     * This returns whether the attributes of a file need to be read before 
+     * the file is given to the given filter. This is only the case for 
+     * {@code AttributeFileFilters} that {@link 
+     * AttributeFileFilter#requiresAttributes() require} the attributes.
+     * @param filter The filter to check.
+     * @return Whether the attributes need to be read before filtering.
+     */
+    static boolean requiresAttributes(java.io.FileFilter filter){
+        return filter instanceof AttributeFileFilter && 
+                ((AttributeFileFilter)filter).requiresAttributes();
+    }
+    /**
+     * This returns the glob pattern that can be given to the file system when 
+     * listing a directory in order to have it filter the directory's contents, 
+     * if the contents that the pattern rejects would not be used. This is the 
+     * case when the file filter is a {@code FileWildcard} for the same file 
+     * system as the directory and either the file filter also decides which 
+     * directories to descend into, or the contents of the directory will not 
+     * be descended into due to the maximum depth. When this returns a 
+     * pattern, the contents of the directory that the file system returns are 
+     * known to be accepted by the file filter.
+     * @param filter The filter for the files.
+     * @param descendFilter The filter for the directories to descend into.
+     * @param depth The maximum subfolder depth, or negative if unlimited.
+     * @param dir The directory being listed.
+     * @param curDepth The subfolder depth of the directory's contents.
+     * @return The glob pattern to list the directory with, or null if the 
+     * directory's contents should not be filtered while listing.
+     * @see Files#newDirectoryStream(Path, String) 
+     */
+    static String getListingGlob(java.io.FileFilter filter, 
+            java.io.FileFilter descendFilter, int depth, Path dir, 
+            int curDepth){
+        if (!(filter instanceof FileWildcard))  // If not a wildcard
+            return null;
+        FileWildcard card = (FileWildcard) filter;
+            // If the wildcard matches everything, is for a different file 
+            // system, or is empty
+        if (card.isMatchAll() || card.getFileSystem() != dir.getFileSystem() || 
+                card.toString().isEmpty())
+            return null;
+            // If the directory filter is the file filter, then the rejected 
+            // contents will not be descended into either. Otherwise, they will 
+            // only be skipped if they are at the maximum depth
+        if (descendFilter == filter || (depth >= 0 && curDepth >= depth))
+            return card.toString();
+        return null;
+    }
+    /**
+     * This opens a directory stream for the given directory, filtering its 
+     * contents with the given glob pattern if there is one.
+     * @param dir The directory to list.
+     * @param glob The glob pattern to filter the contents with, or null.
+     * @return The directory stream for the directory.
+     * @throws IOException If an I/O error occurs.
+     * @see #getListingGlob(java.io.FileFilter, java.io.FileFilter, int, Path, 
+     * int) 
+     */
+    static DirectoryStream<Path> newDirectoryStream(Path dir, String glob) 
+            throws IOException{
+        if (glob == null)   // If the contents are not being filtered
+            return Files.newDirectoryStream(dir);
+        return Files.newDirectoryStream(dir, glob);
+    }
+    /**
+     * This returns an object that uniquely identifies the file at the given 
+     * path. This will be the file key from the given attributes if there is 
+     * one, otherwise this will be the real path of the file, or the absolute 
+     * path of the file if the real path cannot be determined.
+     * @param path The path of the file.
+     * @param attrs The attributes of the file.
+     * @return An object that identifies the file.
+     * @see BasicFileAttributes#fileKey() 
+     */
+    static Object getFileKey(Path path, BasicFileAttributes attrs){
+            // This gets the file key for the file
+        Object key = attrs.fileKey();
+        if (key != null)    // If the file system provided a file key
+            return key;
+        try{
+            return path.toRealPath();
+        }
+        catch (IOException | SecurityException ex){
+            return path.toAbsolutePath().normalize();
+        }
+    }
+    /**
+     * This returns a set to use to keep track of the file keys of files that 
+     * have been visited if the given option is present in the given options.
+     * @param option The option to check for.
+     * @param concurrent Whether the set will be used by multiple threads.
+     * @param options The options for the walk.
+     * @return A set for file keys, or null if the option is not present.
+     */
+    static Set<Object> getKeySet(WalkOption option, 
+            boolean concurrent, WalkOption... options){
+        for (WalkOption temp : options){// Go through the options
+            if (temp == option)         // If this is the option
+                return (concurrent) ? ConcurrentHashMap.newKeySet() : 
+                        new HashSet<>();
+        }
+        return null;
+    }
+    /**
+     * This class cannot be constructed.
+     */
+    private WalkSupport(){}
+}
@@ -6,35 +6,88 @@
 package files.wildcard;
 
 import files.FilesExtended;
+import files.PathListTokenizer;
+import files.filters.AttributeFileFilter;
+import files.filters.FilterCost;
 import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
 
 /**
  * This represents a wildcard for matching files. This uses a PathMatcher with 
  * glob syntax. For more information on glob syntax, see {@code 
- * FileSystem.getPathMatcher()}.
+ * FileSystem.getPathMatcher()}. Simple wildcards, such as {@code *}, {@code 
+ * *.txt}, {@code prefix*}, and wildcards without any special characters, are 
+ * matched by comparing the file name directly rather than by using a 
+ * PathMatcher. These comparisons ignore case if the FileSystem's PathMatchers 
+ * ignore case.
  * @author Milo Steier
  * @see java.nio.file.FileSystem#getPathMatcher(java.lang.String) 
  */
-public class FileWildcard implements java.io.FileFilter, PathMatcher{
+public class FileWildcard implements AttributeFileFilter, PathMatcher{
     /**
      * This is the syntax used by FileWildcard for its PathMatcher. 
      */
     protected static final String DEFAULT_SYNTAX = "glob";
     /**
-     * The PathMatcher used to match files.
+     * This is the maximum number of FileWildcards kept in the cache used by 
+     * {@link #valueOf(FileSystem, String) valueOf}.
+     */
+    private static final int CACHE_SIZE = 256;
+    /**
+     * This is the cache of FileWildcards used by {@link #valueOf(FileSystem, 
+     * String) valueOf}, keyed by their pattern. Only FileWildcards for the 
+     * default FileSystem are cached, since the default FileSystem cannot be 
+     * closed, whereas caching FileWildcards for other file systems would keep 
+     * them reachable after they have been closed. This discards the least 
+     * recently used FileWildcard once it is full.
+     */
+    private static final Map<String,FileWildcard> CACHE = 
+            Collections.synchronizedMap(new LinkedHashMap<>(16,0.75f,true){
+        @Override
+        protected boolean removeEldestEntry(
+                Map.Entry<String,FileWildcard> eldest){
+            return size() > CACHE_SIZE;
+        }
+    });
+    /**
+     * The PathMatcher used to match files, or null if the pattern is simple 
+     * enough to be matched without one.
      */
     private final PathMatcher matcher;
     /**
      * The pattern to use for the PathMatcher.
      */
     private final String card;
+    /**
+     * The FileSystem that this wildcard matches paths for.
+     */
+    private final FileSystem fs;
+    /**
+     * The pattern as a File, which is used to compare FileWildcards.
+     */
+    private final File cardFile;
+    /**
+     * The shape of the pattern.
+     */
+    private final WildcardShape shape;
+    /**
+     * The pattern without any leading or trailing asterisks, which is used 
+     * for matching simple patterns.
+     */
+    private final String literal;
+    /**
+     * Whether simple patterns are matched without regard to case.
+     */
+    private final boolean ignoreCase;
     /**
      * This constructs a FileWildcard with the given FileSystem and pattern. <p>
      * FileWildcards use glob syntax.
@@ -44,7 +97,18 @@ public class FileWildcard implements java.io.FileFilter, PathMatcher{
      */
     public FileWildcard(FileSystem system, String wildcard) {
         card=new File(Objects.requireNonNull(wildcard,"Wildcard pattern cannot be null")).getName();
-        matcher = system.getPathMatcher(DEFAULT_SYNTAX+":"+card);
+        cardFile = new File(card);
+        fs = Objects.requireNonNull(system);
+        shape = WildcardShape.of(card);
+        literal = shape.getLiteral(card);
+            // Only patterns that cannot be compared directly need a matcher
+        if (shape == WildcardShape.PATTERN){
+            matcher = system.getPathMatcher(DEFAULT_SYNTAX+":"+card);
+            ignoreCase = false;
+        } else {
+            matcher = null;
+            ignoreCase = WildcardShape.isCaseInsensitive(system);
+        }
     }
     /**
      * This constructs a FileWildcard with the default FileSystem and with 
@@ -57,6 +121,45 @@ public class FileWildcard implements java.io.FileFilter, PathMatcher{
     public FileWildcard(String wildcard) {
         this(FileSystems.getDefault(), wildcard);
     }
+    /**
+     * This returns a FileWildcard with the given FileSystem and pattern. If 
+     * the given FileSystem is the default FileSystem, then this will return a 
+     * cached FileWildcard if one has recently been requested for the same 
+     * pattern, which avoids compiling the pattern again. The cache holds a 
+     * bounded number of FileWildcards and is safe to use from multiple 
+     * threads. FileWildcards for other file systems are not cached, so that 
+     * the file systems are not kept reachable once they are no longer used. 
+     * <p>
+     * FileWildcards use glob syntax.
+     * @param system The FileSystem to use.
+     * @param wildcard The pattern for the wildcard (Cannot be null).
+     * @return A FileWildcard for the given pattern.
+     * @see #FileWildcard(FileSystem, String) 
+     */
+    public static FileWildcard valueOf(FileSystem system, String wildcard){
+        Objects.requireNonNull(wildcard,"Wildcard pattern cannot be null");
+            // If the FileSystem is not the default FileSystem
+        if (system != FileSystems.getDefault())
+            return new FileWildcard(system,wildcard);
+        FileWildcard card = CACHE.get(wildcard);
+        if (card == null){  // If the wildcard is not in the cache
+            card = new FileWildcard(system,wildcard);
+            CACHE.put(wildcard, card);
+        }
+        return card;
+    }
+    /**
+     * This returns a FileWildcard with the default FileSystem and the given 
+     * pattern, which may be a cached FileWildcard. <p>
+     * FileWildcards use glob syntax.
+     * @param wildcard The pattern for the wildcard (Cannot be null).
+     * @return A FileWildcard for the given pattern.
+     * @see #valueOf(FileSystem, String) 
+     * @see FileSystems#getDefault() 
+     */
+    public static FileWildcard valueOf(String wildcard){
+        return valueOf(FileSystems.getDefault(),wildcard);
+    }
     /**
      * This gets the pattern of the wildcard.
      * @return The pattern of the wildcard.
@@ -65,16 +168,39 @@ public class FileWildcard implements java.io.FileFilter, PathMatcher{
     public String toString() {
         return card;
     }
+    /**
+     * This returns the FileSystem that this wildcard was created for. This 
+     * is the FileSystem whose glob syntax and case sensitivity are used to 
+     * match paths.
+     * @return The FileSystem for this wildcard.
+     */
+    public FileSystem getFileSystem(){
+        return fs;
+    }
+    /**
+     * This returns whether this wildcard matches every file, such as when the 
+     * pattern is {@code *}.
+     * @return Whether this wildcard matches everything.
+     */
+    public boolean isMatchAll(){
+        return shape == WildcardShape.ALL;
+    }
     /**
      * This gets the pattern of the wildcard as a <code>File</code>.
      * @return The pattern of the wildcard as a <code>File</code>.
      */
     public File getWildcardFile() {
-        return new File(card);
+        return cardFile;
     }
     @Override
     public boolean matches(Path path) {
-        return matcher.matches(path.getFileName());
+        if (matcher != null)    // If this pattern needs the PathMatcher
+            return matcher.matches(path.getFileName());
+        else if (shape == WildcardShape.ALL)    // If this matches everything
+            return true;
+        Path name = path.getFileName();
+        return name != null && shape.matches(literal,name.toString(),
+                ignoreCase);
     }
     /**
      * This returns whether the given file has a path that matches this 
@@ -84,12 +210,35 @@ public class FileWildcard implements java.io.FileFilter, PathMatcher{
      * @see matches(java.nio.file.Path)
      */
     public boolean matches(File file) {
-        return matches(file.toPath());
+        if (matcher != null)    // If this pattern needs the PathMatcher
+            return matches(file.toPath());
+        return shape.matches(literal,file.getName(),ignoreCase);
     }
     @Override
     public boolean accept(File pathname) {
         return matches(pathname);
     }
+    /**
+     * This returns whether the given path matches this wildcard. The 
+     * attributes are not used, as this only matches the name of the file.
+     * @param path {@inheritDoc }
+     * @param attrs {@inheritDoc }
+     * @return {@inheritDoc }
+     * @see #matches(java.nio.file.Path) 
+     */
+    @Override
+    public boolean accept(Path path, BasicFileAttributes attrs) {
+        return matches(path);
+    }
+    /**
+     * This returns {@link FilterCost#NAME_ONLY NAME_ONLY}, since wildcards 
+     * only match the names of files.
+     * @return {@inheritDoc }
+     */
+    @Override
+    public FilterCost getCost(){
+        return FilterCost.NAME_ONLY;
+    }
     /**
      * This generates a <code>javax.swing.filechooser.FileFilter</code> using 
      * this as the filter, and using the given description.
@@ -128,17 +277,18 @@ public class FileWildcard implements java.io.FileFilter, PathMatcher{
         if (!(obj instanceof FileWildcard))//If the object is not a FileWildcard
             return false;
         FileWildcard temp = (FileWildcard) obj; // Gets the FileWildcard
-        return new File(card).equals(new File(temp.card));
+        return cardFile.equals(temp.cardFile);
     }
     /**
-     * This returns the hash code for this FileWildcard object.
+     * This returns the hash code for this FileWildcard object. This is based 
+     * on the pattern as a File, so that FileWildcards that are equal have the 
+     * same hash code.
      * @return The hash code for this FileWildcard object.
      */
     @Override
     public int hashCode() {
         int hash = 5;   // The hashcode
-        hash = 11 * hash + Objects.hashCode(this.matcher);
-        hash = 11 * hash + this.card.hashCode();
+        hash = 11 * hash + cardFile.hashCode();
         return hash;
     }
 //    
@@ -160,38 +310,33 @@ public class FileWildcard implements java.io.FileFilter, PathMatcher{
      */
     public static ArrayList<FileWildcard>getWildcardsFromString(String cardList, 
             ArrayList<FileWildcard> wildcards) {
-        int start = 0;              // The start of the wildcard.
-            // A for loop to process the wildcards
-        for (int pos = 0; pos < cardList.length(); pos++) {
-            boolean split = false;  //Get the end of a wildcard has been reached
-            char character = cardList.charAt(pos);  // The current character
-            if (character == '\"') {                // If a quotation mark
-                start = ++pos;
-                pos = cardList.indexOf("\"",pos);
-                split = pos >= 0;
-            }   // If there is a space, comma, or file path separator
-            else if (character == ',' || character == ' ' || 
-                    character == File.pathSeparatorChar)
-                split = true;
-            if (split) {            // If the end of a wildcard has been reached
-                    // If the position is greater than the start and the 
-                if (pos > start &&pos<cardList.length()){// position is in range
-                        // This gets the wildcard as a string
-                    String temp = cardList.substring(start,pos).trim();
-                    if (!temp.isEmpty())    // If the wildcard is not blank
-                        wildcards.add(new FileWildcard(temp));
-                }
-                start = pos+1;
-            }
-            else if (pos < 0)   // If the position is negative
-                break;
-        }
-        if (start < cardList.length()) {    // If the start is still in range
-                // This gets the wildcard as a string
-            String temp = cardList.substring(start).trim();
-            if (!temp.isEmpty())    // If the wildcard is not blank
-                wildcards.add(new FileWildcard(temp));
+        try{
+            return getWildcardsFromReader(new StringReader(cardList),wildcards);
+        }   // A StringReader does not throw IOExceptions
+        catch (IOException ex){
+            throw new UncheckedIOException(ex);
         }
+    }
+    /**
+     * This adds wildcards from a Reader listing the wildcards to an ArrayList 
+     * of FileWildcards. This accepts the same format as {@link 
+     * #getWildcardsFromString(String, ArrayList) getWildcardsFromString}, but 
+     * the list is read incrementally. The Reader is not closed.
+     * <p>
+     * Postcondition: This will alter the given ArrayList.
+     * @param in The Reader to read the wildcards from.
+     * @param wildcards The ArrayList of wildcards to add to.
+     * @return The given ArrayList after the wildcards have been added.
+     * @throws IOException If an I/O error occurs while reading.
+     * @see PathListTokenizer
+     */
+    public static ArrayList<FileWildcard> getWildcardsFromReader(Reader in, 
+            ArrayList<FileWildcard> wildcards) throws IOException{
+        PathListTokenizer tokenizer = new PathListTokenizer(in,
+                PathListTokenizer.Mode.WILDCARDS);
+        String card;            // The next wildcard
+        while ((card = tokenizer.nextToken()) != null)
+            wildcards.add(valueOf(card));
         return wildcards;
     }
     /**
@@ -211,13 +356,12 @@ public class FileWildcard implements java.io.FileFilter, PathMatcher{
      * @return The ArrayList of wildcards with duplicates removed.
      */
     public static List <FileWildcard> removeDuplicateWildcards(List <FileWildcard> wildcards) {
-        // A for loop to find duplicates
-        for (int pos = 0; pos < wildcards.size(); pos++) {       
-            FileWildcard temp = wildcards.get(pos);  // The element to check for
-                // While the last index of the element is not the current one
-            while (wildcards.lastIndexOf(temp) != pos){
-                wildcards.remove(wildcards.lastIndexOf(temp));
-            }
+            // This gets the wildcards without duplicates, keeping the first 
+            // occurrence of each wildcard in order
+        Set<FileWildcard> unique = new LinkedHashSet<>(wildcards);
+        if (unique.size() != wildcards.size()){ // If there are duplicates
+            wildcards.clear();
+            wildcards.addAll(unique);
         }
         return wildcards;
     }
@@ -232,10 +376,44 @@ public class FileWildcard implements java.io.FileFilter, PathMatcher{
         removeDuplicateWildcards(wildcards);
         if (wildcards.isEmpty())    // If there are no wildcards
             return "";
-        String paths = "";          // This gets the string containing the wildcards
-        for (FileWildcard temp : wildcards)  // A for loop to go though the wildcards
-            paths += "\"" + temp + "\"" + File.pathSeparator + " ";
-        return paths.substring(0,paths.length()-(File.pathSeparator.length()+1));
+            // This gets the estimated length of the list, which is the length 
+            // of the wildcards plus the quotes and separators
+        int length = 0;
+        for (FileWildcard temp : wildcards)
+            length += temp.card.length() + 3 + File.pathSeparator.length();
+            // This gets the builder for the string containing the wildcards
+        StringBuilder paths = new StringBuilder(length);
+        try{
+            writeWildcardList(wildcards,paths);
+        }   // A StringBuilder does not throw IOExceptions
+        catch (IOException ex){
+            throw new UncheckedIOException(ex);
+        }
+        return paths.toString();
+    }
+    /**
+     * This writes the given wildcards to the given Appendable, such as a 
+     * Writer or a StringBuilder, in the same format as {@link 
+     * #getWildcardList(List) getWildcardList}. Each wildcard is surrounded by 
+     * quotation marks, and the wildcards are separated by the native system's 
+     * path separator and a space. The wildcards are written as they are, 
+     * without removing any duplicates.
+     * @param wildcards The wildcards to write.
+     * @param out The Appendable to write to.
+     * @return The given Appendable.
+     * @throws IOException If an I/O error occurs.
+     * @see #getWildcardList(List) 
+     */
+    public static Appendable writeWildcardList(Iterable<FileWildcard> wildcards, 
+            Appendable out) throws IOException{
+        boolean first = true;   // Whether this is the first wildcard
+        for (FileWildcard temp : wildcards){
+            if (!first)         // If this is not the first wildcard
+                out.append(File.pathSeparator).append(' ');
+            out.append('\"').append(temp.card).append('\"');
+            first = false;
+        }
+        return out;
     }
     /**
      * This formats the given ArrayList of wildcards so that they may be used 
@@ -259,10 +437,155 @@ public class FileWildcard implements java.io.FileFilter, PathMatcher{
                 if (!t.startsWith("*."))// If the wildcard does not begin with the proper format
                     t = "*." + t;
             }
-            arr.add(new FileWildcard(t));
+            arr.add(valueOf(t));
         }
         return arr;
     }
+    /**
+     * This is the number of values checked by each task when matching values 
+     * in bulk. This is a multiple of 64 so that each task fills whole words of 
+     * the resulting BitSet.
+     */
+    private static final int MATCH_CHUNK_SIZE = 64 * 64;
+    /**
+     * This returns a BitSet with the bits set for the indexes that pass the 
+     * given test. Large ranges are split into chunks that are tested in 
+     * parallel, with each chunk filling its own words of the BitSet so that 
+     * no synchronization is needed.
+     * @param size The number of indexes to test.
+     * @param test The test for each index, which must be safe to call from 
+     * multiple threads.
+     * @return A BitSet of the indexes that passed the test.
+     */
+    private static BitSet matchAll(int size, 
+            java.util.function.IntPredicate test){
+            // This gets the words for the BitSet
+        long[] words = new long[(size + 63) >>> 6];
+            // This gets the number of chunks to split the indexes into
+        int chunks = (size + MATCH_CHUNK_SIZE - 1) / MATCH_CHUNK_SIZE;
+        java.util.stream.IntStream stream = 
+                java.util.stream.IntStream.range(0, chunks);
+        if (chunks > 1)     // If there is more than one chunk
+            stream = stream.parallel();
+        stream.forEach((int chunk) -> {
+            int start = chunk * MATCH_CHUNK_SIZE;
+            int end = Math.min(size, start + MATCH_CHUNK_SIZE);
+            for (int i = start; i < end; i++){
+                if (test.test(i))   // If the index passes
+                    words[i >>> 6] |= 1L << i;
+            }
+        });
+        return BitSet.valueOf(words);
+    }
+    /**
+     * This returns the name of the file in the given path String, which is 
+     * the text after the last name separator.
+     * @param path The path String.
+     * @return The name of the file.
+     */
+    private static String getName(String path){
+        int index = Math.max(path.lastIndexOf('/'), 
+                path.lastIndexOf(File.separatorChar));
+        return (index < 0) ? path : path.substring(index+1);
+    }
+    /**
+     * This returns which of the given paths match this wildcard. Large lists 
+     * are matched in parallel.
+     * @param paths The paths to check (cannot contain nulls).
+     * @return A BitSet with the bit at each index set if the path at that 
+     * index matches this wildcard.
+     * @see #matches(java.nio.file.Path) 
+     */
+    public BitSet matchAll(List<? extends Path> paths){
+        Path[] arr = paths.toArray(new Path[paths.size()]);
+        return matchAll(arr.length, (int i) -> matches(arr[i]));
+    }
+    /**
+     * This returns which of the given file paths match this wildcard. Only 
+     * the name of each file, which is the text after the last name separator, 
+     * is matched. Large arrays are matched in parallel.
+     * @param paths The file paths to check (cannot contain nulls).
+     * @return A BitSet with the bit at each index set if the path at that 
+     * index matches this wildcard.
+     * @see #matches(java.io.File) 
+     */
+    public BitSet matchAll(String[] paths){
+        if (matcher != null)    // If this pattern needs the PathMatcher
+            return matchAll(paths.length, (int i) -> 
+                    matcher.matches(fs.getPath(getName(paths[i]))));
+        return matchAll(paths.length, (int i) -> 
+                shape.matches(literal,getName(paths[i]),ignoreCase));
+    }
+    /**
+     * This returns which of the given paths match any of the wildcards in the 
+     * given list. The wildcards are compiled into a {@link FileWildcardSet} 
+     * once, which is then shared by all the threads, and each path is 
+     * matched the same as by {@link #matches(List, Path)}. Large lists are 
+     * matched in parallel.
+     * @param wildcards The wildcards to match with.
+     * @param paths The paths to check (cannot contain nulls).
+     * @return A BitSet with the bit at each index set if the path at that 
+     * index matches any of the wildcards.
+     * @see #matches(java.util.List, java.nio.file.Path) 
+     */
+    public static BitSet matchAll(List<FileWildcard> wildcards, 
+            List<? extends Path> paths){
+        FileWildcardSet set = new FileWildcardSet(getFileSystem(wildcards),
+                wildcards);
+        Path[] arr = paths.toArray(new Path[paths.size()]);
+        return matchAll(arr.length, (int i) -> set.matches(arr[i]));
+    }
+    /**
+     * This returns which of the given file paths match any of the wildcards 
+     * in the given list. Only the name of each file, which is the text after 
+     * the last name separator, is matched. Large arrays are matched in 
+     * parallel.
+     * @param wildcards The wildcards to match with.
+     * @param paths The file paths to check (cannot contain nulls).
+     * @return A BitSet with the bit at each index set if the path at that 
+     * index matches any of the wildcards.
+     * @see FileWildcardSet#matchesName(java.lang.String) 
+     */
+    public static BitSet matchAll(List<FileWildcard> wildcards, 
+            String[] paths){
+        FileWildcardSet set = new FileWildcardSet(getFileSystem(wildcards),
+                wildcards);
+        return matchAll(paths.length, (int i) -> 
+                set.matchesName(getName(paths[i])));
+    }
+    /**
+     * This returns which of the given paths match each of the wildcards in 
+     * the given list. Large lists are matched in parallel.
+     * @param wildcards The wildcards to match with.
+     * @param paths The paths to check (cannot contain nulls).
+     * @return An array containing a BitSet for each wildcard, in the same 
+     * order as the wildcards, with the bit at each index set if the path at 
+     * that index matches the wildcard.
+     * @see #matchAll(java.util.List, java.util.List) 
+     */
+    public static BitSet[] matchEach(List<FileWildcard> wildcards, 
+            List<? extends Path> paths){
+        Path[] arr = paths.toArray(new Path[paths.size()]);
+        BitSet[] hits = new BitSet[wildcards.size()];
+        for (int i = 0; i < hits.length; i++){
+            FileWildcard card = wildcards.get(i);
+            hits[i] = matchAll(arr.length, (int j) -> card.matches(arr[j]));
+        }
+        return hits;
+    }
+    /**
+     * This returns the FileSystem shared by the given wildcards, which is the 
+     * default FileSystem if there are no wildcards.
+     * @param wildcards The wildcards.
+     * @return The FileSystem for the wildcards.
+     */
+    private static FileSystem getFileSystem(List<FileWildcard> wildcards){
+        for (FileWildcard card : wildcards){
+            if (card != null)
+                return card.fs;
+        }
+        return FileSystems.getDefault();
+    }
     /**
      * This returns whether the given path matches any of the wildcards in the 
      * given ArrayList.
@@ -270,6 +593,7 @@ public class FileWildcard implements java.io.FileFilter, PathMatcher{
      * @param path The path to check for.
      * @return Whether the given path matches any of the wildcards.
      * @see FileWildcard#matches(java.nio.file.Path) 
+     * @see FileWildcardSet
      */
     public static boolean matches(List<FileWildcard> wildcards, Path path){
         for (FileWildcard temp : wildcards) // A for loop to go through the array
@@ -0,0 +1,320 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package files.wildcard;
+
+import files.filters.AttributeFileFilter;
+import files.filters.FilterCost;
+import java.io.File;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+/**
+ * This is a compiled set of FileWildcards that matches a file if any of the 
+ * wildcards match it, while only checking the file's name once. Rather than 
+ * trying each wildcard's PathMatcher in turn, the wildcards are sorted by 
+ * their shape when this is constructed: <p>
+ * 
+ * <ul>
+ * <li>Wildcards that match everything, such as {@code *}, make this match 
+ * every file.</li>
+ * <li>Wildcards without any special characters are placed into a hash set of 
+ * names.</li>
+ * <li>Wildcards that are an asterisk followed by text, such as {@code *.txt}, 
+ * are placed into a table keyed by the file extension they end with, so that 
+ * only the wildcards for a file's extension are checked.</li>
+ * <li>Wildcards that are text followed by an asterisk, such as {@code img*}, 
+ * are checked by comparing the start of the name.</li>
+ * <li>All other wildcards are merged into a single glob pattern, such as 
+ * {@code {a?c,[0-9]*.png}}, so that only one regular expression is run. 
+ * Wildcards that contain braces, commas, or backslashes cannot be merged, 
+ * since these would end the group or escape the separator, and are matched 
+ * separately.</li>
+ * </ul>
+ * 
+ * If the file system matches glob patterns without regard to case, as is the 
+ * case on Microsoft Windows, then so will this. A FileWildcardSet is 
+ * immutable and is safe to use from multiple threads.
+ * @author Mosblinker
+ * @see FileWildcard#matches(List, Path) 
+ */
+public class FileWildcardSet implements AttributeFileFilter, PathMatcher{
+    /**
+     * The wildcards in this set.
+     */
+    private final List<FileWildcard> wildcards;
+    /**
+     * The FileSystem used to match the patterns.
+     */
+    private final FileSystem fs;
+    /**
+     * Whether names are compared without regard to case.
+     */
+    private final boolean ignoreCase;
+    /**
+     * Whether this matches every file.
+     */
+    private final boolean matchesAll;
+    /**
+     * The names that are matched exactly. If case is ignored, then these are 
+     * in lower case.
+     */
+    private final Set<String> literals = new HashSet<>();
+    /**
+     * This maps file extensions, without the period, to the suffixes ending 
+     * with that extension. If case is ignored, then these are in lower case.
+     */
+    private final Map<String, List<String>> extensions = new HashMap<>();
+    /**
+     * The suffixes that do not contain a period.
+     */
+    private final List<String> suffixes = new ArrayList<>();
+    /**
+     * The prefixes that names can start with.
+     */
+    private final List<String> prefixes = new ArrayList<>();
+    /**
+     * The PathMatchers for the wildcards that are patterns.
+     */
+    private final List<PathMatcher> matchers = new ArrayList<>();
+    /**
+     * This constructs a FileWildcardSet that matches files using the given 
+     * wildcards in the given FileSystem.
+     * @param fs The FileSystem to use (cannot be null).
+     * @param wildcards The wildcards to match with (cannot be null). Null 
+     * elements are ignored.
+     */
+    public FileWildcardSet(FileSystem fs, 
+            Collection<? extends FileWildcard> wildcards){
+        this.fs = Objects.requireNonNull(fs);
+        ignoreCase = WildcardShape.isCaseInsensitive(fs);
+        List<FileWildcard> list = new ArrayList<>(wildcards.size());
+            // This gets the patterns that need a PathMatcher
+        List<String> patterns = new ArrayList<>();
+        boolean all = false;
+        for (FileWildcard card : wildcards){
+            if (card == null)   // Null wildcards are skipped
+                continue;
+            list.add(card);
+            String pattern = card.toString();
+            WildcardShape shape = WildcardShape.of(pattern);
+            String literal = toKey(shape.getLiteral(pattern));
+            switch(shape){
+                case ALL:
+                    all = true;
+                    break;
+                case LITERAL:
+                    literals.add(literal);
+                    break;
+                case SUFFIX:
+                    int dot = literal.lastIndexOf('.');
+                    if (dot < 0)    // If the suffix is not an extension
+                        suffixes.add(literal);
+                    else
+                        extensions.computeIfAbsent(literal.substring(dot+1), 
+                                (String k) -> new ArrayList<>()).add(literal);
+                    break;
+                case PREFIX:
+                    prefixes.add(literal);
+                    break;
+                default:
+                    patterns.add(pattern);
+            }
+        }
+        this.wildcards = Collections.unmodifiableList(list);
+        matchesAll = all;
+            // This gets the patterns that can be merged into one pattern
+        List<String> merged = new ArrayList<>();
+        for (String pattern : patterns){
+                // If the pattern cannot be placed inside braces
+            if (!canMerge(pattern))
+                matchers.add(getMatcher(fs,pattern));
+            else
+                merged.add(pattern);
+        }
+        if (merged.size() == 1) // If there's only one pattern to merge
+            matchers.add(getMatcher(fs,merged.get(0)));
+        else if (!merged.isEmpty())
+            matchers.add(getMatcher(fs,"{"+String.join(",", merged)+"}"));
+    }
+    /**
+     * This constructs a FileWildcardSet that matches files using the given 
+     * wildcards in the default FileSystem.
+     * @param wildcards The wildcards to match with (cannot be null). Null 
+     * elements are ignored.
+     * @see FileSystems#getDefault() 
+     */
+    public FileWildcardSet(Collection<? extends FileWildcard> wildcards){
+        this(FileSystems.getDefault(),wildcards);
+    }
+    /**
+     * This constructs a FileWildcardSet that matches files using the given 
+     * wildcards in the default FileSystem.
+     * @param wildcards The wildcards to match with. Null elements are 
+     * ignored.
+     * @see FileSystems#getDefault() 
+     */
+    public FileWildcardSet(FileWildcard... wildcards){
+        this(Arrays.asList(wildcards));
+    }
+    /**
+     * This returns whether the given pattern can be merged with other 
+     * patterns inside a glob group. Patterns containing braces or commas 
+     * would change where the group or its alternatives end, and a backslash 
+     * could escape the comma or brace that follows the pattern.
+     * @param pattern The glob pattern.
+     * @return Whether the pattern can be placed inside braces.
+     */
+    private static boolean canMerge(String pattern){
+        for (int i = 0; i < pattern.length(); i++){
+            switch(pattern.charAt(i)){
+                case '{':
+                case '}':
+                case ',':
+                case '\\':
+                    return false;
+            }
+        }
+        return true;
+    }
+    /**
+     * This returns a glob PathMatcher for the given pattern.
+     * @param fs The FileSystem to get the PathMatcher from.
+     * @param pattern The glob pattern.
+     * @return The PathMatcher for the pattern.
+     */
+    private static PathMatcher getMatcher(FileSystem fs, String pattern){
+        return fs.getPathMatcher(FileWildcard.DEFAULT_SYNTAX+":"+pattern);
+    }
+    /**
+     * This returns the given text in the form that is used for comparing 
+     * names, which is in lower case if case is being ignored.
+     * @param text The text to convert.
+     * @return The text to use for comparisons.
+     */
+    private String toKey(String text){
+        return (ignoreCase) ? text.toLowerCase(Locale.ROOT) : text;
+    }
+    /**
+     * This returns the wildcards in this set.
+     * @return An unmodifiable list of the wildcards in this set.
+     */
+    public List<FileWildcard> getWildcards(){
+        return wildcards;
+    }
+    /**
+     * This returns whether this set contains no wildcards, in which case it 
+     * does not match any files.
+     * @return Whether this set is empty.
+     */
+    public boolean isEmpty(){
+        return wildcards.isEmpty();
+    }
+    /**
+     * This returns whether the given file name matches any of the wildcards 
+     * in this set.
+     * @param name The file name to check.
+     * @return Whether the name matches any of the wildcards.
+     */
+    public boolean matchesName(String name){
+        return matchesName(name,null);
+    }
+    /**
+     * This returns whether the given file name matches any of the wildcards 
+     * in this set.
+     * @param name The file name to check.
+     * @param path The file name as a path, or null if it has not been 
+     * created yet.
+     * @return Whether the name matches any of the wildcards.
+     */
+    private boolean matchesName(String name, Path path){
+        if (matchesAll)     // If every name matches
+            return true;
+        String key = toKey(name);
+        if (literals.contains(key)) // If the name is matched exactly
+            return true;
+        if (!extensions.isEmpty()){ // If there are extensions to check
+            int dot = key.lastIndexOf('.');
+                // This gets the suffixes for the name's extension
+            List<String> list = (dot < 0) ? null : 
+                    extensions.get(key.substring(dot+1));
+            if (list != null){      // If there are suffixes for the extension
+                for (String suffix : list){
+                    if (key.endsWith(suffix))
+                        return true;
+                }
+            }
+        }
+        for (String suffix : suffixes){
+            if (key.endsWith(suffix))
+                return true;
+        }
+        for (String prefix : prefixes){
+            if (key.startsWith(prefix))
+                return true;
+        }
+        if (!matchers.isEmpty()){   // If there are patterns to check
+            if (path == null)       // If the name has not been made a path yet
+                path = fs.getPath(name);
+            for (PathMatcher matcher : matchers){
+                if (matcher.matches(path))
+                    return true;
+            }
+        }
+        return false;
+    }
+    /**
+     * This returns whether the name of the file at the given path matches any 
+     * of the wildcards in this set.
+     * @param path The path to check.
+     * @return Whether the path matches any of the wildcards.
+     */
+    @Override
+    public boolean matches(Path path) {
+        Path name = path.getFileName();
+        if (name == null)   // If the path has no name, such as a root
+            return matchesAll;
+        return matchesName(name.toString(),name);
+    }
+    /**
+     * This returns whether the name of the given file matches any of the 
+     * wildcards in this set.
+     * @param file The file to check.
+     * @return Whether the file matches any of the wildcards.
+     */
+    public boolean matches(File file) {
+        return matchesName(file.getName());
+    }
+    @Override
+    public boolean accept(File pathname) {
+        return pathname != null && matches(pathname);
+    }
+    /**
+     * This returns whether the given path matches any of the wildcards in this 
+     * set. The attributes are not used, as this only matches the names of 
+     * files.
+     * @param path {@inheritDoc }
+     * @param attrs {@inheritDoc }
+     * @return {@inheritDoc }
+     * @see #matches(java.nio.file.Path) 
+     */
+    @Override
+    public boolean accept(Path path, BasicFileAttributes attrs) {
+        return matches(path);
+    }
+    /**
+     * This returns {@link FilterCost#NAME_ONLY NAME_ONLY}, since wildcards 
+     * only match the names of files.
+     * @return {@inheritDoc }
+     */
+    @Override
+    public FilterCost getCost(){
+        return FilterCost.NAME_ONLY;
+    }
+    @Override
+    public String toString(){
+        return wildcards.toString();
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package files.wildcard;
+
+import files.filters.AttributeFileFilter;
+import files.filters.FilterCost;
+import java.io.File;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+/**
+ * This represents a wildcard for matching the paths of files relative to a 
+ * folder, such as {@code src/**}{@code /test/*.java}. The pattern is split 
+ * into segments by the name separator, and each segment is matched against 
+ * one name in the path using a {@link FileWildcard}. A segment that is 
+ * exactly {@code **} matches any number of names, including none. <p>
+ * 
+ * Unlike a glob PathMatcher, this can tell whether a directory could contain 
+ * any matching files, which allows a walk of a file tree to skip directories 
+ * that cannot contain any matches without listing them. The segments at the 
+ * start of the pattern that do not contain any special characters make up 
+ * the {@link #getLiteralPrefix() literal prefix} of the pattern, which is 
+ * where a walk can start. The {@link #getFileFilter(Path) getFileFilter}, 
+ * {@link #getDescendFilter(Path) getDescendFilter}, {@link #getStart(Path) 
+ * getStart}, and {@link #getMaximumDepth() getMaximumDepth} methods provide 
+ * what is needed to walk a file tree for the files matching this. <p>
+ * 
+ * The paths are matched a segment at a time by keeping track of every 
+ * segment that the path could currently be at, so patterns with several 
+ * {@code **} segments do not require backtracking.
+ * @author Mosblinker
+ * @see FileWildcard
+ * @see files.FilesExtended#getFilesFromFolder(java.io.File, PathWildcard, 
+ * files.walk.WalkOption...) 
+ */
+public class PathWildcard implements PathMatcher{
+    /**
+     * This is the segment that matches any number of names.
+     */
+    private static final String ANY_SEGMENTS = "**";
+    /**
+     * The pattern for this wildcard.
+     */
+    private final String pattern;
+    /**
+     * The FileSystem used to match the segments.
+     */
+    private final FileSystem fs;
+    /**
+     * The wildcards for each segment, with null for {@code **} segments.
+     */
+    private final FileWildcard[] segments;
+    /**
+     * The number of segments at the start of the pattern that are literal 
+     * names.
+     */
+    private final int prefixCount;
+    /**
+     * Whether this has any {@code **} segments.
+     */
+    private final boolean recursive;
+    /**
+     * This constructs a PathWildcard with the given FileSystem and pattern. 
+     * The segments of the pattern are separated by forward slashes, or by the 
+     * name separator of the FileSystem if it is not a backslash, since 
+     * backslashes are used to escape characters in glob syntax. Empty 
+     * segments are ignored. <p>
+     * PathWildcards use glob syntax for each segment.
+     * @param fs The FileSystem to use (cannot be null).
+     * @param pattern The pattern for the wildcard (cannot be null).
+     * @see FileWildcard#FileWildcard(FileSystem, String) 
+     */
+    public PathWildcard(FileSystem fs, String pattern){
+        this.pattern = Objects.requireNonNull(pattern, 
+                "Wildcard pattern cannot be null");
+        this.fs = Objects.requireNonNull(fs);
+            // This gets the segments of the pattern
+        List<FileWildcard> list = new ArrayList<>();
+        String separator = fs.getSeparator();
+        int prefix = -1;    // This gets the number of literal segments
+        boolean any = false;
+        for (String segment : pattern.split("/")){
+                // If the name separator is not the same as the separator used 
+                // for splitting and is not the glob escape character
+            String[] parts = (separator.equals("/") || separator.equals("\\")) ? 
+                    new String[]{segment} : segment.split(
+                            java.util.regex.Pattern.quote(separator));
+            for (String part : parts){
+                if (part.isEmpty()) // Empty segments are skipped
+                    continue;
+                if (part.equals(ANY_SEGMENTS)){ // If this matches any names
+                    list.add(null);
+                    any = true;
+                } else
+                    list.add(FileWildcard.valueOf(fs, part));
+                    // If this is the first segment that isn't a literal name
+                if (prefix < 0 && (part.equals(ANY_SEGMENTS) || 
+                        WildcardShape.of(part) != WildcardShape.LITERAL))
+                    prefix = list.size()-1;
+            }
+        }
+        segments = list.toArray(new FileWildcard[list.size()]);
+        prefixCount = (prefix < 0) ? segments.length : prefix;
+        recursive = any;
+    }
+    /**
+     * This constructs a PathWildcard with the default FileSystem and the 
+     * given pattern.
+     * @param pattern The pattern for the wildcard (cannot be null).
+     * @see FileSystems#getDefault() 
+     */
+    public PathWildcard(String pattern){
+        this(FileSystems.getDefault(),pattern);
+    }
+    /**
+     * This gets the pattern of the wildcard.
+     * @return The pattern of the wildcard.
+     */
+    @Override
+    public String toString(){
+        return pattern;
+    }
+    /**
+     * This returns the FileSystem used by this wildcard.
+     * @return The FileSystem used to match the segments.
+     */
+    public FileSystem getFileSystem(){
+        return fs;
+    }
+    /**
+     * This returns the number of segments in this wildcard.
+     * @return The number of segments.
+     */
+    public int getSegmentCount(){
+        return segments.length;
+    }
+    /**
+     * This returns the segments at the start of this wildcard that are 
+     * literal names, joined by the name separator. A walk for the files 
+     * matching this wildcard can start at this path, since every matching 
+     * file must be inside it.
+     * @return The literal prefix of this wildcard, or an empty String if 
+     * the first segment is not a literal name.
+     * @see #getStart(Path) 
+     */
+    public String getLiteralPrefix(){
+        StringJoiner joiner = new StringJoiner(fs.getSeparator());
+        for (int i = 0; i < prefixCount; i++)
+            joiner.add(segments[i].toString());
+        return joiner.toString();
+    }
+    /**
+     * This returns the path to start walking at in order to find the files in 
+     * the given folder that match this wildcard. This is the given folder 
+     * with the {@link #getLiteralPrefix() literal prefix} resolved against 
+     * it.
+     * @param root The folder that paths are relative to.
+     * @return The path to start walking at.
+     */
+    public Path getStart(Path root){
+        String prefix = getLiteralPrefix();
+        return (prefix.isEmpty()) ? root : root.resolve(prefix);
+    }
+    /**
+     * This returns the maximum subfolder depth, relative to the {@link 
+     * #getStart(Path) starting path}, at which a file could match this 
+     * wildcard.
+     * @return The maximum subfolder depth, or -1 if this wildcard contains 
+     * {@code **} and so there is no limit.
+     */
+    public int getMaximumDepth(){
+        return (recursive) ? -1 : segments.length - prefixCount;
+    }
+    /**
+     * This adds the segments that can be reached from the given segment 
+     * without consuming a name to the given set. The index is added, along 
+     * with the indexes after any {@code **} segments.
+     * @param states The set of segments to add to.
+     * @param index The index of the segment.
+     */
+    private void addState(BitSet states, int index){
+        states.set(index);
+            // While the segment matches any number of names, it can also 
+            // match no names, so the next segment can be reached as well
+        while (index < segments.length && segments[index] == null)
+            states.set(++index);
+    }
+    /**
+     * This returns the segments that the given path could be at after its 
+     * names from the given index onwards have been matched. An index equal 
+     * to the number of segments indicates that the path matches the entire 
+     * wildcard.
+     * @param path The path to match.
+     * @param start The index of the first name to match.
+     * @return The set of segments that the path could be at, which is empty 
+     * if the path cannot match.
+     */
+    private BitSet getStates(Path path, int start){
+        BitSet states = new BitSet(segments.length+1);
+        addState(states,0);
+        int count = path.getNameCount();
+        for (int n = start; n < count && !states.isEmpty(); n++){
+            Path name = path.getName(n);
+            BitSet next = new BitSet(segments.length+1);
+            for (int i = states.nextSetBit(0); i >= 0 && i < segments.length; 
+                    i = states.nextSetBit(i+1)){
+                if (segments[i] == null)    // If this matches any names
+                    addState(next,i);
+                else if (segments[i].matches(name)) // If the name matches
+                    addState(next,i+1);
+            }
+            states = next;
+        }
+        return states;
+    }
+    /**
+     * This returns the index of the first name in the given path that is 
+     * relative to the given folder.
+     * @param root The folder that the path is relative to.
+     * @param path The path, which is either the folder or inside it.
+     * @return The index of the first name relative to the folder.
+     */
+    private static int getStartIndex(Path root, Path path){
+            // An empty path has one empty name
+        return (root.toString().isEmpty()) ? 0 : root.getNameCount();
+    }
+    /**
+     * This returns whether the given relative path matches this wildcard.
+     * @param path The path relative to the folder being searched.
+     * @return Whether the path matches this wildcard.
+     */
+    @Override
+    public boolean matches(Path path) {
+        return getStates(path,(path.toString().isEmpty()) ? 1 : 0).get(
+                segments.length);
+    }
+    /**
+     * This returns whether the given path, which is inside the given folder, 
+     * matches this wildcard when it is made relative to the folder.
+     * @param root The folder that the path is relative to.
+     * @param path The path to check.
+     * @return Whether the path matches this wildcard.
+     */
+    public boolean matches(Path root, Path path){
+        return getStates(path,getStartIndex(root,path)).get(segments.length);
+    }
+    /**
+     * This returns whether the directory at the given path, which is inside 
+     * the given folder, could contain any files that match this wildcard.
+     * @param root The folder that the path is relative to.
+     * @param path The path of the directory.
+     * @return Whether the directory could contain files matching this.
+     */
+    public boolean canContainMatch(Path root, Path path){
+            // This gets the segments the directory could be at
+        BitSet states = getStates(path,getStartIndex(root,path));
+            // If there are any segments left to match
+        int first = states.nextSetBit(0);
+        return first >= 0 && first < segments.length;
+    }
+    /**
+     * This returns a FileFilter that accepts the files in the given folder 
+     * that match this wildcard. The filter only looks at the paths of files, 
+     * and only accepts files that are inside the given folder.
+     * @param root The folder that paths are relative to.
+     * @return A filter for the files that match this wildcard.
+     * @see #matches(Path, Path) 
+     */
+    public AttributeFileFilter getFileFilter(Path root){
+        return new RelativeFilter(root,true);
+    }
+    /**
+     * This returns a FileFilter that accepts the directories in the given 
+     * folder that could contain files matching this wildcard. This can be 
+     * used as the directory filter for a walk so that directories that cannot 
+     * contain any matches are skipped without being listed.
+     * @param root The folder that paths are relative to.
+     * @return A filter for the directories to descend into.
+     * @see #canContainMatch(Path, Path) 
+     */
+    public AttributeFileFilter getDescendFilter(Path root){
+        return new RelativeFilter(root,false);
+    }
+    @Override
+    public boolean equals(Object obj){
+        if (obj == this)    // If obj is this PathWildcard
+            return true;
+        if (!(obj instanceof PathWildcard)) // If obj is not a PathWildcard
+            return false;
+        PathWildcard temp = (PathWildcard) obj;
+        return fs.equals(temp.fs) && pattern.equals(temp.pattern);
+    }
+    @Override
+    public int hashCode(){
+        int hash = 7;
+        hash = 31 * hash + fs.hashCode();
+        hash = 31 * hash + pattern.hashCode();
+        return hash;
+    }
+    /**
+     * This is a filter that matches paths relative to a folder against this 
+     * wildcard.
+     */
+    private class RelativeFilter implements AttributeFileFilter{
+        /**
+         * The folder that paths are relative to.
+         */
+        private final Path root;
+        /**
+         * Whether this accepts matching files, as opposed to directories that 
+         * could contain matching files.
+         */
+        private final boolean files;
+        /**
+         * This constructs a RelativeFilter.
+         * @param root The folder that paths are relative to.
+         * @param files Whether this accepts matching files.
+         */
+        RelativeFilter(Path root, boolean files){
+            this.root = Objects.requireNonNull(root);
+            this.files = files;
+        }
+        @Override
+        public boolean accept(Path path, BasicFileAttributes attrs) {
+                // If the path is not in the folder. An empty path is the 
+                // current folder, which every relative path starts with, but 
+                // Path.startsWith does not treat it that way
+            if (!(root.toString().isEmpty() ? !path.isAbsolute() : 
+                    path.startsWith(root)))
+                return false;
+            return (files) ? matches(root,path) : canContainMatch(root,path);
+        }
+        @Override
+        public boolean accept(File pathname) {
+            if (pathname == null)   // If the pathname is null
+                return false;
+            try{
+                return accept(pathname.toPath(),null);
+            }
+            catch (InvalidPathException ex){
+                return false;
+            }
+        }
+        @Override
+        public FilterCost getCost(){
+            return FilterCost.NAME_ONLY;
+        }
+    }
+}
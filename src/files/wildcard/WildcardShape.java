@@ -0,0 +1,166 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Enum.java to edit this template
+ */
+package files.wildcard;
+
+import java.nio.file.FileSystem;
+import java.util.*;
+
+/**
+ * This is the shape of a glob pattern for a file name, which is used to match 
+ * simple patterns by comparing strings directly instead of using a regular 
+ * expression.
+ * @author Mosblinker
+ */
+enum WildcardShape {
+    /**
+     * This is a pattern made up of only asterisks, which matches every name.
+     */
+    ALL,
+    /**
+     * This is a pattern without any special characters, which only matches 
+     * names that are equal to it.
+     */
+    LITERAL,
+    /**
+     * This is a pattern that is an asterisk followed by text without any 
+     * special characters, such as {@code *.txt}, which matches names that end 
+     * with the text.
+     */
+    SUFFIX,
+    /**
+     * This is a pattern that is text without any special characters followed 
+     * by an asterisk, such as {@code image*}, which matches names that start 
+     * with the text.
+     */
+    PREFIX,
+    /**
+     * This is any other pattern, which must be matched by a PathMatcher.
+     */
+    PATTERN;
+    /**
+     * This caches whether file systems match glob patterns without regard to 
+     * case. File systems are only weakly referenced so that closed file 
+     * systems can be discarded.
+     */
+    private static final Map<FileSystem, Boolean> CASE_INSENSITIVE = 
+            Collections.synchronizedMap(new WeakHashMap<>());
+    /**
+     * This returns whether the given character has a special meaning in glob 
+     * patterns.
+     * @param c The character to check.
+     * @return Whether the character is a glob special character.
+     */
+    private static boolean isSpecial(char c){
+        switch(c){
+            case '*':
+            case '?':
+            case '[':
+            case ']':
+            case '{':
+            case '}':
+            case '\\':
+                return true;
+        }
+        return false;
+    }
+    /**
+     * This returns whether the given range of the given string contains any 
+     * glob special characters.
+     * @param card The string to check.
+     * @param start The index to start at, inclusive.
+     * @param end The index to end at, exclusive.
+     * @return Whether the range contains any special characters.
+     */
+    private static boolean hasSpecial(String card, int start, int end){
+        for (int i = start; i < end; i++){
+            if (isSpecial(card.charAt(i)))
+                return true;
+        }
+        return false;
+    }
+    /**
+     * This returns the shape of the given glob pattern.
+     * @param card The glob pattern for a file name.
+     * @return The shape of the pattern.
+     */
+    static WildcardShape of(String card){
+        int len = card.length();
+        if (len == 0)           // An empty pattern only matches an empty name
+            return LITERAL;
+            // This gets the index of the first character that isn't an 
+        int start = 0;          // asterisk
+        while (start < len && card.charAt(start) == '*')
+            start++;
+        if (start == len)       // If the pattern is only asterisks
+            return ALL;
+            // This gets the index after the last character that isn't an 
+        int end = len;          // asterisk
+        while (card.charAt(end-1) == '*')
+            end--;
+            // If there are special characters between the asterisks, or there 
+            // are asterisks on both ends
+        if (hasSpecial(card,start,end) || (start > 0 && end < len))
+            return PATTERN;
+        else if (start > 0)     // If the pattern starts with asterisks
+            return SUFFIX;
+        else if (end < len)     // If the pattern ends with asterisks
+            return PREFIX;
+        return LITERAL;
+    }
+    /**
+     * This returns the literal text of the given glob pattern with this 
+     * shape, which is the pattern without its leading or trailing asterisks. 
+     * @param card The glob pattern with this shape.
+     * @return The literal text of the pattern.
+     */
+    String getLiteral(String card){
+        switch(this){
+            case ALL:
+                return "";
+            case SUFFIX:
+                return card.substring(card.lastIndexOf('*')+1);
+            case PREFIX:
+                return card.substring(0, card.indexOf('*'));
+        }
+        return card;
+    }
+    /**
+     * This returns whether the given file name matches a pattern with this 
+     * shape and the given literal text. This does not support {@link #PATTERN 
+     * PATTERN}, and does not allocate any objects.
+     * @param literal The literal text of the pattern.
+     * @param name The file name to check.
+     * @param ignoreCase Whether to ignore case.
+     * @return Whether the name matches.
+     */
+    boolean matches(String literal, String name, boolean ignoreCase){
+        int len = literal.length();
+        switch(this){
+            case ALL:
+                return true;
+            case LITERAL:
+                return name.length() == len && 
+                        name.regionMatches(ignoreCase,0,literal,0,len);
+            case SUFFIX:
+                return name.length() >= len && name.regionMatches(ignoreCase,
+                        name.length()-len,literal,0,len);
+            case PREFIX:
+                return name.length() >= len && 
+                        name.regionMatches(ignoreCase,0,literal,0,len);
+        }
+        throw new UnsupportedOperationException("Pattern requires a matcher");
+    }
+    /**
+     * This returns whether the given file system matches glob patterns 
+     * without regard to case, as is the case on Microsoft Windows.
+     * @param fs The file system to check.
+     * @return Whether glob patterns ignore case in the file system.
+     */
+    static boolean isCaseInsensitive(FileSystem fs){
+        return CASE_INSENSITIVE.computeIfAbsent(fs, (FileSystem t) -> 
+                t.getPathMatcher(FileWildcard.DEFAULT_SYNTAX+":a").matches(
+                        t.getPath("A")));
+    }
+}
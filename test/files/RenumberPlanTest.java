@@ -0,0 +1,248 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/UnitTests/JUnit4TestClass.java to edit this template
+ */
+package files;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * This tests the planning and renaming of numbered files by RenumberPlan.
+ * @author Mosblinker
+ */
+public class RenumberPlanTest {
+    /**
+     * The folder containing the numbered files.
+     */
+    private Path dir;
+    @Before
+    public void setUp() throws IOException{
+        dir = Files.createTempDirectory("renumber");
+            // The template file must exist for its extension to be found
+        Files.writeString(dir.resolve("a.txt"), "0");
+        Files.writeString(dir.resolve("other.txt"), "");
+    }
+    @After
+    public void tearDown() throws IOException{
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)){
+            for (Path path : stream)
+                Files.delete(path);
+        }
+        Files.delete(dir);
+    }
+    /**
+     * This creates the numbered files with the given numbers, with each file
+     * containing its original number.
+     * @param numbers The file numbers to create.
+     * @throws IOException If a file could not be created.
+     */
+    private void create(int... numbers) throws IOException{
+        for (int num : numbers)
+            Files.writeString(getPath(num), Integer.toString(num));
+    }
+    /**
+     * This returns the path of the numbered file with the given number.
+     * @param num The file number.
+     * @return The path of the file.
+     */
+    private Path getPath(int num){
+        return dir.resolve("a ("+num+").txt");
+    }
+    /**
+     * This returns a RenumberPlan for the numbered files in the folder.
+     * @return The RenumberPlan.
+     * @throws IOException If the folder could not be listed.
+     */
+    private RenumberPlan getPlan() throws IOException{
+        return new RenumberPlan(dir.resolve("a.txt").toFile(),"(",")");
+    }
+    /**
+     * This returns a map of the numbered files in the folder to their
+     * contents, which are the numbers the files started with.
+     * @return A map of the file names to their contents.
+     * @throws IOException If the folder could not be read.
+     */
+    private Map<String, String> getContents() throws IOException{
+        Map<String, String> contents = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)){
+            for (Path path : stream){
+                String name = path.getFileName().toString();
+                if (!name.equals("other.txt"))
+                    contents.put(name, Files.readString(path));
+            }
+        }
+        return contents;
+    }
+    /**
+     * This returns the expected contents of the folder, given pairs of file
+     * numbers and the numbers the files started with.
+     * @param pairs The file numbers followed by their original numbers.
+     * @return A map of the file names to their contents.
+     */
+    private Map<String, String> expected(int... pairs){
+        Map<String, String> contents = new TreeMap<>();
+        contents.put("a.txt", "0");
+        for (int i = 0; i < pairs.length; i += 2)
+            contents.put(getPath(pairs[i]).getFileName().toString(),
+                    Integer.toString(pairs[i+1]));
+        return contents;
+    }
+    /**
+     * This tests that only the numbered files in the sequence are found.
+     */
+    @Test
+    public void testFileNumbers() throws IOException{
+        create(3, 1, 10);
+        Files.writeString(dir.resolve("a (x).txt"), "");
+        Files.writeString(dir.resolve("b (2).txt"), "");
+        Map<File, Integer> numbers = getPlan().getFileNumbers();
+        assertEquals(Arrays.asList(1, 3, 10),
+                new ArrayList<>(numbers.values()));
+        assertEquals(getPath(1).toFile(), numbers.keySet().iterator().next());
+    }
+    /**
+     * This tests that shifting the files up forms a single chain, which
+     * starts with the file whose new name is free.
+     */
+    @Test
+    public void testShiftIsOneChain() throws IOException{
+        create(1, 2, 3);
+        RenumberPlan plan = getPlan();
+        plan.plan((int num) -> num + 1);
+        assertEquals(1, plan.getChainCount());
+        Map<File, File> renamed = plan.execute(1);
+        assertEquals(3, renamed.size());
+        assertEquals(getPath(4).toFile(), renamed.get(getPath(3).toFile()));
+        assertEquals(expected(2,1, 3,2, 4,3), getContents());
+    }
+    /**
+     * This tests that renames that do not share any names are planned as
+     * separate chains, and can be performed in parallel.
+     */
+    @Test
+    public void testIndependentChains() throws IOException{
+        create(1, 2, 5);
+        RenumberPlan plan = getPlan();
+        plan.plan((int num) -> num + 10);
+        assertEquals(3, plan.getChainCount());
+        assertEquals(3, plan.execute(3).size());
+        assertEquals(expected(11,1, 12,2, 15,5), getContents());
+    }
+    /**
+     * This tests that compacting the file numbers forms a chain that moves
+     * each file down into the name that was just freed, and that a file 
+     * moving onto a name that is already free is a chain of its own.
+     */
+    @Test
+    public void testCompactChain() throws IOException{
+        create(2, 3, 7, 8);
+        RenumberPlan plan = getPlan();
+        Map<Integer, Integer> numbers = Map.of(2, 1, 3, 2, 7, 3, 8, 4);
+        plan.plan(numbers::get);
+        assertEquals(2, plan.getChainCount());
+        plan.execute(2);
+        assertEquals(expected(1,2, 2,3, 3,7, 4,8), getContents());
+    }
+    /**
+     * This tests that a rotation forms a cycle, which is performed using a
+     * temporary name that is not left behind.
+     */
+    @Test
+    public void testCycle() throws IOException{
+        create(1, 2, 3);
+        RenumberPlan plan = getPlan();
+        plan.plan((int num) -> num % 3 + 1);
+        assertEquals(1, plan.getChainCount());
+        Map<File, File> renamed = plan.execute(1);
+        assertEquals(3, renamed.size());
+        assertEquals(getPath(1).toFile(), renamed.get(getPath(3).toFile()));
+        assertEquals(expected(1,3, 2,1, 3,2), getContents());
+    }
+    /**
+     * This tests that separate swaps form separate cycles.
+     */
+    @Test
+    public void testSwaps() throws IOException{
+        create(1, 2, 3, 4);
+        RenumberPlan plan = getPlan();
+        plan.plan((int num) -> (num % 2 == 1) ? num + 1 : num - 1);
+        assertEquals(2, plan.getChainCount());
+        plan.execute(2);
+        assertEquals(expected(1,2, 2,1, 3,4, 4,3), getContents());
+    }
+    /**
+     * This tests that a plan with both a chain and a cycle gives every file 
+     * its new name.
+     */
+    @Test
+    public void testChainsAndCycles() throws IOException{
+        create(1, 2, 3, 4, 6);
+        RenumberPlan plan = getPlan();
+        Map<Integer, Integer> numbers = Map.of(1, 2, 2, 1, 3, 5, 4, 3, 6, 4);
+        plan.plan(numbers::get);
+        assertEquals(2, plan.getChainCount());
+        plan.execute(2);
+        assertEquals(expected(1,2, 2,1, 3,4, 4,6, 5,3), getContents());
+    }
+    /**
+     * This tests that files keeping their numbers are not renamed.
+     */
+    @Test
+    public void testUnchanged() throws IOException{
+        create(1, 2);
+        RenumberPlan plan = getPlan();
+        plan.plan((int num) -> num);
+        assertEquals(0, plan.getChainCount());
+        assertTrue(plan.execute(1).isEmpty());
+    }
+    /**
+     * This tests that planning fails without renaming anything when two
+     * files would be given the same name, when a file would be renamed onto a
+     * file outside the sequence, or when a number is negative.
+     */
+    @Test
+    public void testInvalidPlans() throws IOException{
+        create(1, 2, 3);
+        RenumberPlan plan = getPlan();
+        try{
+            plan.plan((int num) -> 1);
+            fail("Expected two files with the same name to be rejected");
+        }
+        catch (IllegalArgumentException ex){ }
+        try{
+            plan.plan((int num) -> (num == 3) ? 0 : num);
+            fail("Expected renaming onto a file outside the sequence to fail");
+        }
+        catch (FileAlreadyExistsException ex){ }
+        try{
+            plan.plan((int num) -> -num);
+            fail("Expected a negative number to be rejected");
+        }
+        catch (IllegalArgumentException ex){ }
+        assertEquals(expected(1,1, 2,2, 3,3), getContents());
+    }
+    /**
+     * This tests that a cycle that fails partway is undone, so that no file
+     * is left with its temporary name.
+     */
+    @Test
+    public void testFailedCycleIsUndone() throws IOException{
+        create(1, 2, 3);
+        RenumberPlan plan = getPlan();
+        plan.plan((int num) -> num % 3 + 1);
+            // Removing a file in the cycle causes the cycle to fail partway
+        Files.delete(getPath(2));
+        try{
+            plan.execute(1, RetryPolicy.NO_RETRY);
+            fail("Expected the cycle to fail");
+        }
+        catch (NoSuchFileException ex){ }
+        assertEquals(expected(1,1, 3,3), getContents());
+    }
+}
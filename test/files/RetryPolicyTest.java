@@ -0,0 +1,186 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/UnitTests/JUnit4TestClass.java to edit this template
+ */
+package files;
+
+import java.io.*;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * This tests how a RetryPolicy retries operations and computes its delays.
+ * @author Mosblinker
+ */
+public class RetryPolicyTest {
+    /**
+     * This returns a RetryPolicy that makes up to the given number of
+     * attempts without waiting between them.
+     * @param attempts The maximum number of attempts.
+     * @return The RetryPolicy.
+     */
+    private static RetryPolicy getPolicy(int attempts){
+        return new RetryPolicy(attempts, Duration.ZERO, Duration.ZERO,
+                Duration.ZERO, 0);
+    }
+    /**
+     * This tests that an operation is retried until it succeeds, and that the
+     * last exception before it succeeded is reported.
+     */
+    @Test
+    public void testRetriesUntilSuccess(){
+        AtomicInteger count = new AtomicInteger();
+        RetryPolicy.Outcome<String> outcome = getPolicy(10).run(() -> {
+            if (count.incrementAndGet() < 4)
+                throw new IOException("Busy");
+            return "done";
+        });
+        assertTrue(outcome.isSuccessful());
+        assertEquals("done", outcome.getResult());
+        assertEquals(4, outcome.getAttempts());
+        assertEquals("Busy", outcome.getException().getMessage());
+    }
+    /**
+     * This tests that an attempt returning null is retried.
+     */
+    @Test
+    public void testNullResultIsRetried(){
+        AtomicInteger count = new AtomicInteger();
+        RetryPolicy.Outcome<Integer> outcome = getPolicy(10).run(() ->
+                (count.incrementAndGet() < 3) ? null : count.get());
+        assertEquals(Integer.valueOf(3), outcome.getResult());
+        assertEquals(3, outcome.getAttempts());
+        assertNull(outcome.getException());
+    }
+    /**
+     * This tests that the operation stops once the maximum number of attempts
+     * has been made.
+     */
+    @Test
+    public void testMaximumAttempts(){
+        AtomicInteger count = new AtomicInteger();
+        RetryPolicy.Outcome<Object> outcome = getPolicy(5).run(() -> {
+            count.incrementAndGet();
+            throw new IOException("Busy");
+        });
+        assertFalse(outcome.isSuccessful());
+        assertNull(outcome.getResult());
+        assertEquals(5, outcome.getAttempts());
+        assertEquals(5, count.get());
+        assertNotNull(outcome.getException());
+    }
+    /**
+     * This tests that exceptions that retrying cannot help with stop the
+     * operation after the first attempt, and that other exceptions are
+     * retryable.
+     */
+    @Test
+    public void testNonRetryableExceptions(){
+        IOException[] fatal = {
+            new FileNotFoundException(), new NoSuchFileException("a"),
+            new FileAlreadyExistsException("a"), new NotDirectoryException("a"),
+            new DirectoryNotEmptyException("a"),
+            new AtomicMoveNotSupportedException("a", "b", null)
+        };
+        for (IOException ex : fatal){
+            assertFalse(ex.toString(), RetryPolicy.DEFAULT.isRetryable(ex));
+            RetryPolicy.Outcome<Object> outcome = getPolicy(10).run(() -> {
+                throw ex;
+            });
+            assertEquals(1, outcome.getAttempts());
+            assertSame(ex, outcome.getException());
+        }
+        assertTrue(RetryPolicy.DEFAULT.isRetryable(new IOException()));
+        assertTrue(RetryPolicy.DEFAULT.isRetryable(
+                new AccessDeniedException("a")));
+    }
+    /**
+     * This tests that a policy constructed with a predicate uses it to decide
+     * which exceptions are retryable.
+     */
+    @Test
+    public void testCustomRetryable(){
+        RetryPolicy policy = new RetryPolicy(10, Duration.ZERO, Duration.ZERO,
+                Duration.ZERO, 0, (IOException ex) ->
+                        ex instanceof NoSuchFileException);
+        assertTrue(policy.isRetryable(new NoSuchFileException("a")));
+        assertFalse(policy.isRetryable(new IOException()));
+    }
+    /**
+     * This tests that the delay doubles after each attempt up to the maximum
+     * delay when there is no jitter, and stays within range with jitter.
+     */
+    @Test
+    public void testDelay(){
+        RetryPolicy policy = new RetryPolicy(10, Duration.ofNanos(100),
+                Duration.ofNanos(700), Duration.ZERO, 0);
+        assertEquals(100, policy.getDelay(1));
+        assertEquals(200, policy.getDelay(2));
+        assertEquals(400, policy.getDelay(3));
+        assertEquals(700, policy.getDelay(4));
+        assertEquals(700, policy.getDelay(40));
+        RetryPolicy jittered = new RetryPolicy(10, Duration.ofNanos(1000),
+                Duration.ofNanos(1000), Duration.ZERO, 0.5);
+        for (int i = 0; i < 100; i++){
+            long delay = jittered.getDelay(1);
+            assertTrue(Long.toString(delay), delay > 500 && delay <= 1000);
+        }
+    }
+    /**
+     * This tests that the policy gives up once waiting would go past the
+     * deadline.
+     */
+    @Test
+    public void testDeadline(){
+        RetryPolicy policy = new RetryPolicy(Integer.MAX_VALUE,
+                Duration.ofMillis(10), Duration.ofMillis(10),
+                Duration.ofMillis(50), 0);
+        RetryPolicy.Outcome<Object> outcome = policy.run(() -> {
+            throw new IOException("Busy");
+        });
+        assertFalse(outcome.isSuccessful());
+        assertTrue(outcome.getAttempts() < 10);
+        assertTrue(outcome.getWaitTime().compareTo(Duration.ofMillis(50)) <= 0);
+    }
+    /**
+     * This tests that a policy that does not retry makes only one attempt.
+     */
+    @Test
+    public void testNoRetry(){
+        RetryPolicy.Outcome<Object> outcome = RetryPolicy.NO_RETRY.run(() -> {
+            throw new IOException("Busy");
+        });
+        assertEquals(1, outcome.getAttempts());
+    }
+    /**
+     * This tests that invalid settings are rejected.
+     */
+    @Test
+    public void testInvalidSettings(){
+        Duration one = Duration.ofMillis(1);
+        try{
+            new RetryPolicy(0, one, one, one, 0);
+            fail("Expected zero attempts to be rejected");
+        }
+        catch (IllegalArgumentException ex){ }
+        try{
+            new RetryPolicy(1, one.negated(), one, one, 0);
+            fail("Expected a negative delay to be rejected");
+        }
+        catch (IllegalArgumentException ex){ }
+        try{
+            new RetryPolicy(1, Duration.ofMillis(2), one, one, 0);
+            fail("Expected a maximum delay below the initial delay to be "
+                    + "rejected");
+        }
+        catch (IllegalArgumentException ex){ }
+        try{
+            new RetryPolicy(1, one, one, one, 1.5);
+            fail("Expected the jitter to be rejected");
+        }
+        catch (IllegalArgumentException ex){ }
+    }
+}
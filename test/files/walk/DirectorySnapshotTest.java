@@ -0,0 +1,167 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/UnitTests/JUnit4TestClass.java to edit this template
+ */
+package files.walk;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * This tests the changes reported by a DirectorySnapshot, and saving and
+ * loading a DirectorySnapshot.
+ * @author Mosblinker
+ */
+public class DirectorySnapshotTest {
+    /**
+     * The folder to take snapshots of.
+     */
+    private Path root;
+    /**
+     * The file the snapshots are saved to.
+     */
+    private Path saved;
+    @Before
+    public void setUp() throws IOException{
+        root = Files.createTempDirectory("snapshot");
+        Files.createDirectories(root.resolve("sub/deep"));
+        Files.writeString(root.resolve("a.txt"), "a");
+        Files.writeString(root.resolve("sub/b.txt"), "b");
+        Files.writeString(root.resolve("sub/deep/c.txt"), "c");
+        saved = Files.createTempFile("snapshot", ".dat");
+    }
+    @After
+    public void tearDown() throws IOException{
+        Files.deleteIfExists(saved);
+        List<Path> paths = new ArrayList<>();
+        try (java.util.stream.Stream<Path> stream = Files.walk(root)){
+            stream.forEach(paths::add);
+        }
+        Collections.reverse(paths);
+        for (Path path : paths)
+            Files.delete(path);
+    }
+    /**
+     * This returns the given paths sorted, so that they can be compared
+     * regardless of the order in which they were found.
+     * @param paths The paths to sort.
+     * @return A sorted set of the paths.
+     */
+    private static Set<Path> sorted(Collection<Path> paths){
+        return new TreeSet<>(paths);
+    }
+    /**
+     * This returns the given paths resolved against the root folder.
+     * @param names The paths relative to the root folder.
+     * @return A sorted set of the paths.
+     */
+    private Set<Path> paths(String... names){
+        Set<Path> paths = new TreeSet<>();
+        for (String name : names)
+            paths.add(root.resolve(name));
+        return paths;
+    }
+    /**
+     * This moves the last modified time of the given directory back, so that
+     * it is not treated as having changed during the scan that follows.
+     * @param dir The directory.
+     * @throws IOException If the time could not be set.
+     */
+    private static void age(Path dir) throws IOException{
+        Files.setLastModifiedTime(dir, FileTime.fromMillis(
+                System.currentTimeMillis() - 60000));
+    }
+    /**
+     * This tests that the first scan reports every entry as added, and that
+     * a second scan with no changes reports nothing.
+     */
+    @Test
+    public void testFirstScan() throws IOException{
+        DirectorySnapshot snapshot = new DirectorySnapshot(root, null);
+        assertFalse(snapshot.isScanned());
+        DirectorySnapshot.Delta delta = snapshot.rescan();
+        assertTrue(snapshot.isScanned());
+        Set<Path> all = paths("a.txt", "sub", "sub/b.txt", "sub/deep",
+                "sub/deep/c.txt");
+        assertEquals(all, sorted(delta.getAdded()));
+        assertTrue(delta.getRemoved().isEmpty());
+        assertEquals(all, sorted(snapshot.getPaths()));
+        assertTrue(snapshot.contains(root.resolve("sub/b.txt")));
+        assertFalse(snapshot.contains(root.resolve("sub/x.txt")));
+        assertTrue(snapshot.rescan().isEmpty());
+    }
+    /**
+     * This tests that added, removed, and modified files are reported.
+     */
+    @Test
+    public void testDelta() throws IOException{
+        DirectorySnapshot snapshot = new DirectorySnapshot(root, null);
+        snapshot.rescan();
+        Files.writeString(root.resolve("sub/new.txt"), "new");
+        Files.delete(root.resolve("sub/deep/c.txt"));
+        DirectorySnapshot.Delta delta = snapshot.rescan();
+        assertEquals(paths("sub/new.txt"), sorted(delta.getAdded()));
+        assertEquals(paths("sub/deep/c.txt"), sorted(delta.getRemoved()));
+            // Changing the contents of a file does not change its directory
+        age(root);
+        snapshot.rescan();
+        Files.writeString(root.resolve("a.txt"), "changed");
+        age(root);
+        delta = snapshot.rescan(true);
+        assertEquals(paths("a.txt"), sorted(delta.getModified()));
+        assertTrue(delta.getAdded().isEmpty());
+        assertTrue(delta.getRemoved().isEmpty());
+    }
+    /**
+     * This tests that the filter and depth limit which entries are recorded.
+     */
+    @Test
+    public void testFilterAndDepth() throws IOException{
+        DirectorySnapshot snapshot = new DirectorySnapshot(root, null, 2);
+        assertEquals(paths("a.txt", "sub", "sub/b.txt", "sub/deep"),
+                sorted(snapshot.rescan().getAdded()));
+        snapshot = new DirectorySnapshot(root, (File file) ->
+                file.isDirectory() || file.getName().startsWith("c"));
+        assertEquals(paths("sub", "sub/deep", "sub/deep/c.txt"),
+                sorted(snapshot.rescan().getAdded()));
+    }
+    /**
+     * This tests that a saved snapshot is loaded with the same entries, and
+     * continues to report the changes made since it was saved.
+     */
+    @Test
+    public void testSaveAndLoad() throws IOException{
+        DirectorySnapshot snapshot = new DirectorySnapshot(root, null);
+        snapshot.rescan();
+        snapshot.save(saved);
+        DirectorySnapshot loaded = DirectorySnapshot.load(saved, null);
+        assertEquals(root, loaded.getRoot());
+        assertTrue(loaded.isScanned());
+        assertEquals(sorted(snapshot.getPaths()), sorted(loaded.getPaths()));
+        Files.delete(root.resolve("sub/b.txt"));
+        DirectorySnapshot.Delta delta = loaded.rescan();
+        assertEquals(paths("sub/b.txt"), sorted(delta.getRemoved()));
+        assertTrue(delta.getAdded().isEmpty());
+    }
+    /**
+     * This tests that loading a file that does not contain a snapshot fails.
+     */
+    @Test
+    public void testLoadInvalidFile() throws IOException{
+        try (OutputStream out = new java.util.zip.GZIPOutputStream(
+                Files.newOutputStream(saved))){
+            out.write(new byte[16]);
+        }
+        try{
+            DirectorySnapshot.load(saved, null);
+            fail("Expected the file to be rejected");
+        }
+        catch (StreamCorruptedException ex){ }
+    }
+}
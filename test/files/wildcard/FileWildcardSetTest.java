@@ -0,0 +1,100 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/UnitTests/JUnit4TestClass.java to edit this template
+ */
+package files.wildcard;
+
+import java.nio.file.*;
+import java.util.*;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * This tests that a FileWildcardSet matches the same names as checking each
+ * of its wildcards in turn.
+ * @author Mosblinker
+ */
+public class FileWildcardSetTest {
+    /**
+     * The patterns used to build the sets. These cover each shape of
+     * wildcard, including patterns with braces, commas, and backslashes that
+     * cannot be merged into one glob group.
+     */
+    static final String[] PATTERNS = {
+        "a?a}", "?", "x[0-9]", "*.txt", "img*", "readme", "*", "[!a]*.png",
+        "*a*", "{b,c}d", "a,b?", "}?", "a\\*b", "*.tar.gz", "*z"
+    };
+    /**
+     * The names to match against the sets.
+     */
+    static final String[] NAMES = {
+        "b", "x1", "x10", "aba}", "a.txt", "txt", "img", "img1", "readme",
+        "README", "c.png", "a.png", "bd", "cd", "a,bc", "}z", "a*b", "axb",
+        "f.tar.gz", "gz", "", "abc", "z"
+    };
+    /**
+     * This returns the wildcards for the patterns whose bits are set in the
+     * given mask.
+     * @param mask The bits of the patterns to use.
+     * @return The wildcards for the patterns.
+     */
+    static List<FileWildcard> getWildcards(int mask){
+        List<FileWildcard> list = new ArrayList<>();
+        for (int i = 0; i < PATTERNS.length; i++){
+            if ((mask & (1 << i)) != 0)
+                list.add(new FileWildcard(PATTERNS[i]));
+        }
+        return list;
+    }
+    /**
+     * This tests the set reported to drop the other merged patterns when one
+     * of them contains a closing brace.
+     */
+    @Test
+    public void testClosingBrace(){
+        FileWildcardSet set = new FileWildcardSet(new FileWildcard("a?a}"),
+                new FileWildcard("?"), new FileWildcard("x[0-9]"));
+        assertTrue(set.matchesName("b"));
+        assertTrue(set.matchesName("x1"));
+        assertTrue(set.matchesName("aba}"));
+        assertFalse(set.matchesName("x10"));
+    }
+    /**
+     * This tests that a set made from every combination of the patterns
+     * matches the same names as {@link FileWildcard#matches(List, Path)}.
+     */
+    @Test
+    public void testMatchesSameAsEachWildcard(){
+        for (int mask = 0; mask < (1 << PATTERNS.length); mask += 7){
+            List<FileWildcard> cards = getWildcards(mask);
+            FileWildcardSet set = new FileWildcardSet(cards);
+            for (String name : NAMES){
+                Path path = Paths.get("dir", name);
+                boolean expected = FileWildcard.matches(cards, path);
+                assertEquals(cards + " matching \"" + name + "\"", expected,
+                        set.matches(path));
+                assertEquals(cards + " matching \"" + name + "\"", expected,
+                        set.matchesName(name));
+            }
+        }
+    }
+    /**
+     * This tests that each pattern on its own, and every pair of patterns,
+     * matches the same names as {@link FileWildcard#matches(List, Path)}.
+     */
+    @Test
+    public void testPairsMatchSameAsEachWildcard(){
+        for (int i = 0; i < PATTERNS.length; i++){
+            for (int j = i; j < PATTERNS.length; j++){
+                List<FileWildcard> cards = getWildcards((1 << i) | (1 << j));
+                FileWildcardSet set = new FileWildcardSet(cards);
+                for (String name : NAMES){
+                    Path path = Paths.get(name);
+                    assertEquals(cards + " matching \"" + name + "\"",
+                            FileWildcard.matches(cards, path),
+                            set.matches(path));
+                }
+            }
+        }
+    }
+}
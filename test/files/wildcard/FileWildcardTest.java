@@ -0,0 +1,94 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/UnitTests/JUnit4TestClass.java to edit this template
+ */
+package files.wildcard;
+
+import java.nio.file.*;
+import java.util.*;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * This tests that the bulk matching methods of FileWildcard return the same
+ * results as matching each path in turn.
+ * @author Mosblinker
+ */
+public class FileWildcardTest {
+    /**
+     * This returns a list of paths that repeats the test names until it is
+     * large enough to be split into several chunks when matched in bulk.
+     * @return The list of paths.
+     */
+    static List<Path> getPaths(){
+        List<Path> paths = new ArrayList<>();
+        for (int i = 0; paths.size() < 10000; i++)
+            paths.add(Paths.get("dir"+i, FileWildcardSetTest.NAMES[
+                    i % FileWildcardSetTest.NAMES.length]));
+        return paths;
+    }
+    /**
+     * This tests the wildcards reported to match nothing in bulk when one of
+     * the patterns contains a closing brace.
+     */
+    @Test
+    public void testMatchAllClosingBrace(){
+        List<FileWildcard> cards = Arrays.asList(new FileWildcard("a?a}"),
+                new FileWildcard("?"), new FileWildcard("x[0-9]"));
+        BitSet expected = new BitSet();
+        expected.set(0, 2);
+        assertEquals(expected, FileWildcard.matchAll(cards,
+                Arrays.asList(Paths.get("b"), Paths.get("x1"))));
+        assertEquals(expected, FileWildcard.matchAll(cards,
+                new String[]{"b", "dir/x1"}));
+    }
+    /**
+     * This tests that {@link FileWildcard#matchAll(List, List)} and {@link
+     * FileWildcard#matchAll(List, String[])} return the same results as
+     * {@link FileWildcard#matches(List, Path)} for each path.
+     */
+    @Test
+    public void testMatchAllSameAsMatches(){
+        List<Path> paths = getPaths();
+        String[] names = new String[paths.size()];
+        for (int i = 0; i < names.length; i++)
+            names[i] = paths.get(i).toString();
+        int count = FileWildcardSetTest.PATTERNS.length;
+        for (int mask = 0; mask < (1 << count); mask += 97){
+            List<FileWildcard> cards = FileWildcardSetTest.getWildcards(mask);
+            BitSet expected = new BitSet();
+            for (int i = 0; i < paths.size(); i++){
+                if (FileWildcard.matches(cards, paths.get(i)))
+                    expected.set(i);
+            }
+            assertEquals(cards.toString(), expected,
+                    FileWildcard.matchAll(cards, paths));
+            assertEquals(cards.toString(), expected,
+                    FileWildcard.matchAll(cards, names));
+        }
+    }
+    /**
+     * This tests that the bulk matching methods for a single wildcard return
+     * the same results as {@link FileWildcard#matches(Path)} for each path.
+     */
+    @Test
+    public void testMatchAllSingleWildcard(){
+        List<Path> paths = getPaths();
+        String[] names = new String[paths.size()];
+        for (int i = 0; i < names.length; i++)
+            names[i] = paths.get(i).toString();
+        List<FileWildcard> cards = FileWildcardSetTest.getWildcards(-1);
+        BitSet[] each = FileWildcard.matchEach(cards, paths);
+        for (int j = 0; j < cards.size(); j++){
+            FileWildcard card = cards.get(j);
+            BitSet expected = new BitSet();
+            for (int i = 0; i < paths.size(); i++){
+                if (card.matches(paths.get(i)))
+                    expected.set(i);
+            }
+            assertEquals(card.toString(), expected, card.matchAll(paths));
+            assertEquals(card.toString(), expected, card.matchAll(names));
+            assertEquals(card.toString(), expected, each[j]);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/UnitTests/JUnit4TestClass.java to edit this template
+ */
+package files.wildcard;
+
+import java.nio.file.*;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * This tests the matching of relative paths by PathWildcard.
+ * @author Mosblinker
+ */
+public class PathWildcardTest {
+    /**
+     * The relative paths to match.
+     */
+    private static final String[] PATHS = {
+        "a.java", "src/a.java", "src/main/a.java", "src/main/b.txt",
+        "src/main/java/x/a.java", "src/test/a.java", "src/test/x1.java",
+        "lib/a.java", "src", "src/main", "a/b/c", "a/x/c"
+    };
+    /**
+     * This tests that patterns without {@code **} segments match the same
+     * paths as a glob PathMatcher.
+     */
+    @Test
+    public void testMatchesSameAsGlob(){
+        String[] patterns = {
+            "*.java", "src/*.java", "src/*/a.java", "src/test/x?.java",
+            "*/*/*", "src/main", "a/[bx]/c", "src/{main,test}/a.java"
+        };
+        for (String pattern : patterns){
+            PathWildcard card = new PathWildcard(pattern);
+            PathMatcher glob = FileSystems.getDefault().getPathMatcher(
+                    "glob:"+pattern);
+            for (String name : PATHS){
+                Path path = Paths.get(name);
+                assertEquals(pattern + " matching \"" + name + "\"",
+                        glob.matches(path), card.matches(path));
+            }
+        }
+    }
+    /**
+     * This tests that a {@code **} segment matches any number of names,
+     * including none.
+     */
+    @Test
+    public void testAnySegments(){
+        PathWildcard card = new PathWildcard("src/**/a.java");
+        assertTrue(card.matches(Paths.get("src/a.java")));
+        assertTrue(card.matches(Paths.get("src/main/a.java")));
+        assertTrue(card.matches(Paths.get("src/main/java/x/a.java")));
+        assertFalse(card.matches(Paths.get("lib/a.java")));
+        assertFalse(card.matches(Paths.get("src/main/b.txt")));
+        card = new PathWildcard("**/*.java");
+        assertTrue(card.matches(Paths.get("a.java")));
+        assertTrue(card.matches(Paths.get("src/test/x1.java")));
+        assertFalse(card.matches(Paths.get("src/main")));
+        card = new PathWildcard("**/main/**");
+        assertTrue(card.matches(Paths.get("src/main")));
+        assertTrue(card.matches(Paths.get("src/main/java/x/a.java")));
+        assertFalse(card.matches(Paths.get("src/test/a.java")));
+    }
+    /**
+     * This tests the literal prefix, starting path, and maximum depth used to
+     * walk a file tree for the matching files.
+     */
+    @Test
+    public void testWalkBounds(){
+        Path root = Paths.get("root");
+        PathWildcard card = new PathWildcard("src/main/*/*.java");
+        assertEquals(4, card.getSegmentCount());
+        assertEquals(Paths.get("src/main").toString(),
+                card.getLiteralPrefix());
+        assertEquals(root.resolve("src/main"), card.getStart(root));
+        assertEquals(2, card.getMaximumDepth());
+        card = new PathWildcard("src/**/*.java");
+        assertEquals("src", card.getLiteralPrefix());
+        assertEquals(-1, card.getMaximumDepth());
+        card = new PathWildcard("*.java");
+        assertEquals("", card.getLiteralPrefix());
+        assertEquals(root, card.getStart(root));
+        assertEquals(1, card.getMaximumDepth());
+    }
+    /**
+     * This tests which directories could contain matching files.
+     */
+    @Test
+    public void testCanContainMatch(){
+        Path root = Paths.get("root");
+        PathWildcard card = new PathWildcard("src/*/a.java");
+        assertTrue(card.canContainMatch(root, root));
+        assertTrue(card.canContainMatch(root, root.resolve("src")));
+        assertTrue(card.canContainMatch(root, root.resolve("src/main")));
+        assertFalse(card.canContainMatch(root, root.resolve("lib")));
+        assertFalse(card.canContainMatch(root, root.resolve("src/main/java")));
+        card = new PathWildcard("src/**/a.java");
+        assertTrue(card.canContainMatch(root, root.resolve("src/main/java")));
+        assertFalse(card.canContainMatch(root, root.resolve("lib/main")));
+    }
+    /**
+     * This tests that the filters match paths relative to the given folder,
+     * including when the folder is an empty path.
+     */
+    @Test
+    public void testFilters(){
+        PathWildcard card = new PathWildcard("src/*.java");
+        Path root = Paths.get("root");
+        assertTrue(card.getFileFilter(root).accept(
+                root.resolve("src/a.java"), null));
+        assertFalse(card.getFileFilter(root).accept(
+                Paths.get("src/a.java"), null));
+        assertTrue(card.getDescendFilter(root).accept(
+                root.resolve("src"), null));
+        assertFalse(card.getDescendFilter(root).accept(
+                root.resolve("lib"), null));
+        Path empty = Paths.get("");
+        assertTrue(card.getFileFilter(empty).accept(
+                Paths.get("src/a.java"), null));
+        assertFalse(card.getFileFilter(empty).accept(
+                Paths.get("lib/a.java"), null));
+    }
+}